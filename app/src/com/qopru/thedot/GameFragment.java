@@ -0,0 +1,186 @@
+package com.qopru.thedot;
+
+import android.app.Activity;
+import android.app.Fragment;
+import android.content.Context;
+import android.hardware.Sensor;
+import android.hardware.SensorManager;
+import android.os.Bundle;
+import android.util.Log;
+import android.view.LayoutInflater;
+import android.view.SurfaceView;
+import android.view.View;
+import android.view.ViewGroup;
+import com.qopru.thedot.core.FixedTimestep;
+import com.qopru.thedot.core.QualityGovernor;
+import com.qopru.thedot.engine.GameEngine;
+
+/**
+ * Game fragment, handles android object hierarchy and events.
+ * 
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public class GameFragment extends Fragment
+{
+    private static final String TAG = "GameFragment";
+    
+    SurfaceView glView;
+    GameThread gameThread;
+    GameEngine engine;
+    SensorManager sensorManager;
+    Sensor sensor;
+    boolean sensorRegistered;
+    QualityGovernor governor;
+    PerformanceProfile profile = PerformanceProfile.BALANCED;
+    
+    @Override
+    public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState)
+    {
+        // Keep the instance on reattaches as long as it remains in the foreground.
+        setRetainInstance(true);
+        
+        Context context = getActivity().getApplicationContext();
+        
+        sensorManager = (SensorManager) context.getSystemService(Context.SENSOR_SERVICE);
+        sensor = sensorManager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER);
+        
+        glView = new SurfaceView(context);
+        engine = new GameEngine(context);
+        governor = new QualityGovernor(FixedTimestep.NANOS_PER_SECOND / profile.frameRate, qualityListener);
+        
+        glView.setOnClickListener(onClickListener);
+        glView.setOnLongClickListener(onLongClickListener);
+        
+        return glView;
+    }
+
+    View.OnClickListener onClickListener = new View.OnClickListener()
+    {
+        @Override
+        public void onClick(View view)
+        {
+            if (engine != null)
+                engine.togglePause();
+        }
+    };
+    
+    // Long press cycles through the performance profiles
+    View.OnLongClickListener onLongClickListener = new View.OnLongClickListener()
+    {
+        @Override
+        public boolean onLongClick(View view)
+        {
+            setPerformanceProfile(profile.next());
+            return true;
+        }
+    };
+    
+    /**
+     * Switches to another performance profile, also while playing.
+     * Must be called from the UI thread.
+     * 
+     * @param profile
+     */
+    public void setPerformanceProfile(PerformanceProfile profile)
+    {
+        if (profile == null)
+            throw new IllegalArgumentException("profile must not be null");
+        Log.d(TAG, "Performance profile "+profile);
+        this.profile = profile;
+        applyPerformanceProfile();
+    }
+    
+    private void applyPerformanceProfile()
+    {
+        PerformanceProfile p = profile;
+        
+        governor.setBudget(FixedTimestep.NANOS_PER_SECOND / p.frameRate);
+        engine.setPartialRedraw(p.partialRedraw);
+        
+        if (gameThread != null)
+        {
+            gameThread.setFrameRate(p.frameRate);
+            gameThread.setUpdateRate(p.updateRate);
+            gameThread.setThreadPriority(p.threadPriority);
+        }
+        
+        if (sensor != null && sensorRegistered)
+        {
+            sensorManager.unregisterListener(engine.getSensorListener(), sensor);
+            sensorManager.registerListener(engine.getSensorListener(), sensor, p.sensorDelay);
+        }
+        
+        if (getActivity() != null)
+            U.setSustainedPerformanceMode(getActivity().getWindow(), p.sustainedPerformance);
+    }
+    
+    QualityGovernor.Listener qualityListener = new QualityGovernor.Listener()
+    {
+        @Override
+        public void onQualityChanged(final QualityGovernor.Quality quality)
+        {
+            engine.setQuality(quality);
+            // Surface size can only be changed from the UI thread
+            glView.post(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    if (quality.resolutionScale >= 1f)
+                        glView.getHolder().setSizeFromLayout();
+                    else
+                        glView.getHolder().setFixedSize(
+                            (int) (glView.getWidth() * quality.resolutionScale),
+                            (int) (glView.getHeight() * quality.resolutionScale));
+                }
+            });
+        }
+    };
+    
+    @Override
+    public void onAttach(Activity activity)
+    {
+        super.onAttach(activity);
+    }
+
+    @Override
+    public void onResume()
+    {
+        super.onResume();
+        
+        // With more than one core, let the physics run apart from the rendering
+        GameThread.Threading threading = Runtime.getRuntime().availableProcessors() > 1 ?
+            GameThread.Threading.SEPARATE :
+            GameThread.Threading.SINGLE;
+        gameThread = new GameThread(glView.getHolder(), engine.getInitializer(), engine.getUpdater(), engine.getRenderer(), threading);
+        gameThread.setMetrics(engine.getMetrics());
+        gameThread.setQualityGovernor(governor);
+        
+        if (sensor != null)
+            sensorRegistered = sensorManager.registerListener(engine.getSensorListener(), sensor, profile.sensorDelay);
+        
+        applyPerformanceProfile();
+        gameThread.start();
+    }
+    
+    @Override
+    public void onPause()
+    {
+        super.onPause();
+        
+        if (gameThread != null)
+            gameThread.quit();
+        
+        if (sensor != null)
+            sensorManager.unregisterListener(engine.getSensorListener(), sensor);
+        sensorRegistered = false;
+    }
+
+    @Override
+    public void onDestroy()
+    {
+        super.onDestroy();
+        if (engine != null)
+            engine.destroy();
+    }
+}
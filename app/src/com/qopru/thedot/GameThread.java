@@ -0,0 +1,438 @@
+package com.qopru.thedot;
+
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.os.Looper;
+import android.os.Process;
+import android.util.Log;
+import android.view.Choreographer;
+import android.view.SurfaceHolder;
+import com.qopru.thedot.core.FixedTimestep;
+import com.qopru.thedot.core.FrameMetrics;
+import com.qopru.thedot.core.QualityGovernor;
+import com.qopru.thedot.core.interfaces.InputSource;
+import com.qopru.thedot.interfaces.GameInitializer;
+import com.qopru.thedot.interfaces.GameRenderer;
+import com.qopru.thedot.interfaces.GameUpdater;
+import com.qopru.thedot.interfaces.PartialRenderer;
+
+/**
+ * Game Loop.
+ *
+ * Physics runs at a fixed timestep: the real elapsed time is accumulated and
+ * consumed in steps of constant size, while rendering happens once per loop
+ * and interpolates between the last two physics states.
+ * Physics can either run on this same thread or on its own one.
+ * Frames are either triggered by the display vsync or paced by sleeping.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public class GameThread extends Thread
+{
+    private static final String TAG = "GameThread";
+
+    public enum Threading
+    {
+        // Update and render one after the other on this thread
+        SINGLE,
+        // Update on a separate thread, this one only renders
+        SEPARATE
+    }
+
+    public enum Pacing
+    {
+        // Frames are started by Choreographer callbacks at each vsync
+        VSYNC,
+        // Frames are started after sleeping what's left of the frame period
+        SLEEP
+    }
+
+    private static final int DEFAULT_FPS = 60;
+    // With vsync pacing, a frame is started when at least the frame period
+    // minus this is passed since the previous one, so that rounding errors
+    // of the vsync timestamps don't skip a frame.
+    private static final long VSYNC_TOLERANCE = FixedTimestep.NANOS_PER_SECOND / 500;
+
+    // Default number of physics steps per second
+    private static final int DEFAULT_UPDATE_RATE = 60;
+
+    public volatile boolean running = true;
+
+    private final SurfaceHolder surfaceHolder;
+    private final GameInitializer initializer;
+    private final GameUpdater updater;
+    private final GameRenderer renderer;
+    private final Threading threading;
+    private final FixedTimestep timestep = new FixedTimestep(DEFAULT_UPDATE_RATE);
+    // Region to lock, for renderers that redraw only what changed
+    private final Rect dirty = new Rect();
+
+    private volatile Pacing pacing = Pacing.VSYNC;
+    private volatile Looper looper;
+    private Choreographer choreographer;
+
+    private UpdateThread updateThread;
+
+    private volatile FrameMetrics metrics = new FrameMetrics();
+    private long previousFrameTime;
+    private volatile QualityGovernor governor;
+
+    // Minimum time between frames, nanoseconds
+    private volatile long framePeriod = FixedTimestep.NANOS_PER_SECOND / DEFAULT_FPS;
+    private volatile int threadPriority = Process.THREAD_PRIORITY_DEFAULT;
+    private int appliedThreadPriority = Process.THREAD_PRIORITY_DEFAULT;
+
+    public GameThread(SurfaceHolder surfaceHolder, GameInitializer initializer, GameUpdater updater, GameRenderer renderer)
+    {
+        this(surfaceHolder, initializer, updater, renderer, Threading.SINGLE);
+    }
+
+    public GameThread(SurfaceHolder surfaceHolder, GameInitializer initializer, GameUpdater updater, GameRenderer renderer, Threading threading)
+    {
+        super();
+        if (surfaceHolder == null || initializer == null || updater == null || renderer == null || threading == null)
+            throw new IllegalArgumentException("all parameters must not be null");
+        this.surfaceHolder = surfaceHolder;
+        this.initializer = initializer;
+        this.updater = updater;
+        this.renderer = renderer;
+        this.threading = threading;
+    }
+
+    /**
+     * Sets how many physics steps are run per second of game time.
+     * Can be changed while the loop is running.
+     *
+     * @param updatesPerSecond
+     */
+    public void setUpdateRate(int updatesPerSecond)
+    {
+        timestep.setUpdateRate(updatesPerSecond);
+    }
+
+    /**
+     * Caps the number of frames rendered per second.
+     * Can be changed while the loop is running.
+     *
+     * @param framesPerSecond
+     */
+    public void setFrameRate(int framesPerSecond)
+    {
+        if (framesPerSecond <= 0)
+            throw new IllegalArgumentException("frame rate must be positive");
+        framePeriod = FixedTimestep.NANOS_PER_SECOND / framesPerSecond;
+    }
+
+    /**
+     * @return the minimum time between frames in nanoseconds.
+     */
+    public long getFramePeriod()
+    {
+        return framePeriod;
+    }
+
+    /**
+     * Sets the priority of the loop threads, as android.os.Process priority.
+     * Can be changed while the loop is running, it's applied at the next
+     * frame (or step for the update thread).
+     *
+     * @param priority
+     */
+    public void setThreadPriority(int priority)
+    {
+        threadPriority = priority;
+        UpdateThread u = updateThread;
+        if (u != null)
+            u.setThreadPriority(priority);
+    }
+
+    /**
+     * Chooses how frames are triggered. Must be called before starting.
+     *
+     * @param pacing
+     */
+    public void setPacing(Pacing pacing)
+    {
+        if (pacing == null)
+            throw new IllegalArgumentException("pacing must not be null");
+        this.pacing = pacing;
+    }
+
+    /**
+     * Sets where the duration of each phase of the frames is recorded.
+     * Must be called before starting.
+     *
+     * @param metrics
+     */
+    public void setMetrics(FrameMetrics metrics)
+    {
+        if (metrics == null)
+            throw new IllegalArgumentException("metrics must not be null");
+        this.metrics = metrics;
+    }
+
+    /**
+     * Sets who decides the rendering quality from the frame times.
+     *
+     * @param governor null to keep the quality as it is.
+     */
+    public void setQualityGovernor(QualityGovernor governor)
+    {
+        this.governor = governor;
+    }
+
+    /**
+     * Stops the loop, whatever the pacing.
+     */
+    public void quit()
+    {
+        running = false;
+        Looper l = looper;
+        if (l != null)
+            l.quit();
+        else
+            interrupt();
+    }
+
+    boolean initialized = false;
+
+    @Override
+    public void run()
+    {
+        Log.d(TAG, "Start");
+
+        try
+        {
+            if (pacing == Pacing.VSYNC)
+                runOnVsync();
+            else
+                runOnSleep();
+        }
+        finally
+        {
+            stopUpdates();
+        }
+    }
+
+    private void runOnVsync()
+    {
+        Looper.prepare();
+        looper = Looper.myLooper();
+        // quit() may have been called before the looper was there
+        if (!running)
+            return;
+
+        choreographer = Choreographer.getInstance();
+        choreographer.postFrameCallback(frameCallback);
+        Looper.loop();
+    }
+
+    private final Choreographer.FrameCallback frameCallback = new Choreographer.FrameCallback()
+    {
+        @Override
+        public void doFrame(long frameTimeNanos)
+        {
+            if (!running)
+            {
+                looper.quit();
+                return;
+            }
+
+            // Frame rate cap lower than the display refresh: skip this vsync
+            if (previousFrameTime != 0 && frameTimeNanos - previousFrameTime < framePeriod - VSYNC_TOLERANCE)
+            {
+                choreographer.postFrameCallback(this);
+                return;
+            }
+
+            // The vsync timestamp is the time this frame will be presented
+            // for: use it, instead of the time the callback got to run.
+            GameThread.this.doFrame(frameTimeNanos);
+            choreographer.postFrameCallback(this);
+        }
+    };
+
+    private void runOnSleep()
+    {
+        // time when the current loop started
+        long frameStart;
+        // time to sleep if the loop is done early
+        long sleepTime;
+
+        while (running)
+        {
+            frameStart = System.nanoTime();
+
+            doFrame(frameStart);
+
+            sleepTime = framePeriod - (System.nanoTime() - frameStart);
+            // sleep time > 0 means that the loop must wait
+            if (sleepTime > 0)
+                sleepNanos(sleepTime);
+        }
+    }
+
+    /**
+     * Updates (if on this thread) and renders a frame.
+     *
+     * @param frameTime time of the frame in nanoseconds.
+     */
+    private void doFrame(long frameTime)
+    {
+        if (appliedThreadPriority != threadPriority)
+        {
+            appliedThreadPriority = threadPriority;
+            Process.setThreadPriority(appliedThreadPriority);
+        }
+
+        if (!initialized)
+        {
+            initialized = initialize(frameTime);
+            if (initialized)
+                startUpdates();
+            return;
+        }
+
+        if (previousFrameTime != 0)
+            metrics.record(FrameMetrics.FRAME, frameTime - previousFrameTime);
+        previousFrameTime = frameTime;
+
+        // Time actually spent working on this frame
+        long busy = 0;
+
+        if (threading == Threading.SINGLE)
+        {
+            long updateStart = System.nanoTime();
+            long stepStart = updateStart;
+            timestep.advance(frameTime);
+            while (timestep.nextStep())
+            {
+                updater.update(timestep.getStepTime(), timestep.getStepMillis());
+                long stepEnd = System.nanoTime();
+                metrics.record(FrameMetrics.UPDATE, stepEnd - stepStart);
+                stepStart = stepEnd;
+            }
+            busy = stepStart - updateStart;
+            metrics.record(FrameMetrics.FRAME_UPDATES, busy);
+        }
+
+        busy += draw(frameTime);
+        metrics.endFrame();
+
+        QualityGovernor g = governor;
+        if (g != null)
+            g.onFrame(busy);
+    }
+
+    private void startUpdates()
+    {
+        if (threading == Threading.SINGLE)
+        {
+            timestep.reset();
+            return;
+        }
+
+        updateThread = new UpdateThread(updater, timestep, metrics);
+        updateThread.setThreadPriority(threadPriority);
+        updateThread.start();
+    }
+
+    private void stopUpdates()
+    {
+        if (updateThread == null)
+            return;
+
+        updateThread.running = false;
+        updateThread.interrupt();
+        try {updateThread.join();} catch (InterruptedException e) {Log.d(TAG, "Interrupted while stopping updates");}
+        updateThread = null;
+    }
+
+    /**
+     * Initializes the game on the first available canvas.
+     *
+     * @return false if the surface wasn't ready yet.
+     */
+    private boolean initialize(long frameTime)
+    {
+        Canvas canvas = null;
+        try
+        {
+            canvas = surfaceHolder.lockCanvas();
+            if (canvas == null)
+                return false;
+
+            synchronized (surfaceHolder)
+            {
+                initializer.init(canvas);
+                renderer.render(canvas, frameTime);
+            }
+            return true;
+        }
+        finally
+        {
+            if (canvas != null)
+                surfaceHolder.unlockCanvasAndPost(canvas);
+        }
+    }
+
+    /**
+     * @return nanoseconds spent rendering and posting, waiting for the canvas
+     * excluded.
+     */
+    private long draw(long frameTime)
+    {
+        Canvas canvas = null;
+        long start = System.nanoTime();
+        long end;
+        long busy = 0;
+        long inputTimestamp = InputSource.NO_SAMPLE;
+        try
+        {
+            if (renderer instanceof PartialRenderer && ((PartialRenderer) renderer).getDirtyRegion(frameTime, dirty))
+            {
+                // Nothing changed, the surface already shows this frame
+                if (dirty.isEmpty())
+                    return 0;
+                // The region may come back larger, if the surface can't
+                // keep the rest of the previous frame
+                canvas = surfaceHolder.lockCanvas(dirty);
+            }
+            else
+                canvas = surfaceHolder.lockCanvas();
+            end = System.nanoTime();
+            metrics.record(FrameMetrics.LOCK_CANVAS, end - start);
+            // Skip a frame if no canvas ready
+            if (canvas == null)
+                return 0;
+
+            start = end;
+            synchronized (surfaceHolder)
+            {
+                inputTimestamp = renderer.render(canvas, frameTime);
+            }
+            end = System.nanoTime();
+            busy = end - start;
+            metrics.record(FrameMetrics.RENDER, busy);
+        }
+        finally
+        {
+            if (canvas != null)
+            {
+                start = System.nanoTime();
+                surfaceHolder.unlockCanvasAndPost(canvas);
+                end = System.nanoTime();
+                busy += end - start;
+                metrics.record(FrameMetrics.POST, end - start);
+                if (inputTimestamp != InputSource.NO_SAMPLE)
+                    metrics.record(FrameMetrics.INPUT_TO_PRESENT, end - inputTimestamp);
+            }
+        }
+        return busy;
+    }
+
+    private void sleepNanos(long nanos)
+    {
+        try {Thread.sleep(nanos / FixedTimestep.NANOS_PER_MILLI, (int) (nanos % FixedTimestep.NANOS_PER_MILLI));} catch (InterruptedException e) {running = false;}
+    }
+}
@@ -0,0 +1,52 @@
+package com.qopru.thedot;
+
+import android.hardware.SensorManager;
+import android.os.Process;
+
+/**
+ * Power/performance trade offs the game can run with.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public enum PerformanceProfile
+{
+    // Half the frames and steps, default priority, slow sensor sampling,
+    // and only the region where the objects move redrawn
+    BATTERY(30, 30, Process.THREAD_PRIORITY_DEFAULT, SensorManager.SENSOR_DELAY_UI, false, true),
+    // The rates the game was made for, still at default priority
+    BALANCED(60, 60, Process.THREAD_PRIORITY_DEFAULT, SensorManager.SENSOR_DELAY_GAME, false, false),
+    // Finer physics, fastest sensors, and sustained performance mode where
+    // available, so that the device clocks stay steady instead of throttling.
+    PERFORMANCE(60, 120, Process.THREAD_PRIORITY_URGENT_DISPLAY, SensorManager.SENSOR_DELAY_FASTEST, true, false);
+
+    // Maximum number of frames rendered per second
+    public final int frameRate;
+    // Physics steps per second
+    public final int updateRate;
+    // android.os.Process priority of the game loop threads
+    public final int threadPriority;
+    // SensorManager sampling delay for the accelerometer
+    public final int sensorDelay;
+    public final boolean sustainedPerformance;
+    // Redraw only the dirty region of the surface while playing
+    public final boolean partialRedraw;
+
+    PerformanceProfile(int frameRate, int updateRate, int threadPriority, int sensorDelay, boolean sustainedPerformance, boolean partialRedraw)
+    {
+        this.frameRate = frameRate;
+        this.updateRate = updateRate;
+        this.threadPriority = threadPriority;
+        this.sensorDelay = sensorDelay;
+        this.sustainedPerformance = sustainedPerformance;
+        this.partialRedraw = partialRedraw;
+    }
+
+    /**
+     * @return the profile after this one, back to the first after the last.
+     */
+    public PerformanceProfile next()
+    {
+        PerformanceProfile[] profiles = values();
+        return profiles[(ordinal() + 1) % profiles.length];
+    }
+}
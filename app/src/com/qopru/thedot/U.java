@@ -3,8 +3,12 @@ package com.qopru.thedot;
 import android.content.Context;
 import static android.content.Context.WINDOW_SERVICE;
 import android.content.res.Configuration;
+import android.os.Build;
+import android.util.Log;
 import android.view.Surface;
+import android.view.Window;
 import android.view.WindowManager;
+import java.lang.reflect.Method;
 
 /**
  *
@@ -12,6 +16,11 @@ import android.view.WindowManager;
  */
 public class U
 {
+    private static final String TAG = "U";
+    
+    // Window.setSustainedPerformanceMode exists from Android N
+    private static final int SUSTAINED_PERFORMANCE_API = 24;
+    
     /**
      * Returns the default device orientation.
      * Phones are portrait by defaults, some tablets are portrait, others landscape by default.
@@ -36,4 +45,32 @@ public class U
         else
             return Configuration.ORIENTATION_PORTRAIT;
     }
+    
+    /**
+     * Sets the window sustained performance mode, where the platform has it.
+     * In that mode the device keeps a steady level of performance that it can
+     * hold for long, instead of running fast and then throttling.
+     * 
+     * @param window
+     * @param enable
+     * @return false when not available.
+     */
+    public static final boolean setSustainedPerformanceMode(Window window, boolean enable)
+    {
+        if (window == null || Build.VERSION.SDK_INT < SUSTAINED_PERFORMANCE_API)
+            return false;
+        
+        // Not in the SDK the game is built with
+        try
+        {
+            Method method = Window.class.getMethod("setSustainedPerformanceMode", boolean.class);
+            method.invoke(window, enable);
+            return true;
+        }
+        catch (Exception e)
+        {
+            Log.w(TAG, "Sustained performance mode not available", e);
+            return false;
+        }
+    }
 }
@@ -0,0 +1,75 @@
+package com.qopru.thedot;
+
+import android.os.Process;
+import android.util.Log;
+import com.qopru.thedot.core.FixedTimestep;
+import com.qopru.thedot.core.FrameMetrics;
+import com.qopru.thedot.interfaces.GameUpdater;
+
+/**
+ * Simulation loop, used when updates run apart from the rendering.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+class UpdateThread extends Thread
+{
+    private static final String TAG = "UpdateThread";
+
+    public volatile boolean running = true;
+
+    private final GameUpdater updater;
+    private final FixedTimestep timestep;
+    private final FrameMetrics metrics;
+
+    private volatile int threadPriority = Process.THREAD_PRIORITY_DEFAULT;
+    private int appliedThreadPriority = Process.THREAD_PRIORITY_DEFAULT;
+
+    UpdateThread(GameUpdater updater, FixedTimestep timestep, FrameMetrics metrics)
+    {
+        super("UpdateThread");
+        this.updater = updater;
+        this.timestep = timestep;
+        this.metrics = metrics;
+    }
+
+    /**
+     * @param priority android.os.Process priority, applied at the next step.
+     */
+    void setThreadPriority(int priority)
+    {
+        threadPriority = priority;
+    }
+
+    @Override
+    public void run()
+    {
+        Log.d(TAG, "Start");
+
+        long sleepTime;
+        long updateStart;
+
+        timestep.reset();
+        while (running)
+        {
+            if (appliedThreadPriority != threadPriority)
+            {
+                appliedThreadPriority = threadPriority;
+                Process.setThreadPriority(appliedThreadPriority);
+            }
+
+            updateStart = System.nanoTime();
+            timestep.advance();
+            while (timestep.nextStep())
+            {
+                updater.update(timestep.getStepTime(), timestep.getStepMillis());
+                metrics.record(FrameMetrics.UPDATE, System.nanoTime() - updateStart);
+                updateStart = System.nanoTime();
+            }
+
+            // Wait until the next step is due
+            sleepTime = timestep.getTimeToNextStep();
+            if (sleepTime > 0)
+                try {Thread.sleep(sleepTime / FixedTimestep.NANOS_PER_MILLI, (int) (sleepTime % FixedTimestep.NANOS_PER_MILLI));} catch (InterruptedException e) {running = false;}
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.qopru.thedot.engine;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import com.qopru.thedot.core.RenderBuffer;
+import com.qopru.thedot.core.interfaces.RenderBackend;
+import com.qopru.thedot.engine.objects.AbstractAnimated;
+
+/**
+ * Executes render commands on a Canvas, with the paints, sprites and layers
+ * registered for their ids.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+class CanvasBackend implements RenderBackend
+{
+    private final Paint[] paints = new Paint[RenderBuffer.IDS];
+    private final AbstractAnimated[] sprites = new AbstractAnimated[RenderBuffer.IDS];
+    private final Layer[] layers = new Layer[RenderBuffer.IDS];
+
+    private Canvas canvas;
+    private final Rect rect = new Rect();
+    private final RectF oval = new RectF();
+
+    void setPaint(int id, Paint paint)
+    {
+        paints[id] = paint;
+    }
+
+    /**
+     * @param id
+     * @param sprite any sprite of the kind, draws the frames of all.
+     */
+    void setSprite(int id, AbstractAnimated sprite)
+    {
+        sprites[id] = sprite;
+    }
+
+    void setLayer(int id, Layer layer)
+    {
+        layers[id] = layer;
+    }
+
+    /**
+     * @param canvas where the next commands are drawn.
+     * @return this.
+     */
+    CanvasBackend on(Canvas canvas)
+    {
+        this.canvas = canvas;
+        return this;
+    }
+
+    @Override
+    public void rect(int paint, float left, float top, float right, float bottom)
+    {
+        canvas.drawRect(left, top, right, bottom, paints[paint]);
+    }
+
+    @Override
+    public void oval(int paint, float left, float top, float right, float bottom)
+    {
+        oval.set(left, top, right, bottom);
+        canvas.drawArc(oval, 0, 360, true, paints[paint]);
+    }
+
+    @Override
+    public void sprite(int sprite, int frame, float left, float top, float right, float bottom)
+    {
+        rect.set((int) left, (int) top, (int) right, (int) bottom);
+        sprites[sprite].drawFrame(canvas, frame, rect);
+    }
+
+    @Override
+    public void layer(int layer, float left, float top, float right, float bottom)
+    {
+        layers[layer].draw(canvas, left, top, (int) (right - left), (int) (bottom - top));
+    }
+
+    @Override
+    public void text(int paint, char[] text, int offset, int length, float x, float y)
+    {
+        canvas.drawText(text, offset, length, x, y, paints[paint]);
+    }
+}
@@ -0,0 +1,1078 @@
+package com.qopru.thedot.engine;
+
+import android.content.Context;
+import android.content.res.Configuration;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Paint.Style;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.hardware.Sensor;
+import android.hardware.SensorEvent;
+import android.hardware.SensorEventListener;
+import android.os.Process;
+import android.os.SystemClock;
+import android.os.Vibrator;
+import android.util.Log;
+import com.qopru.thedot.U;
+import com.qopru.thedot.core.FixedTimestep;
+import com.qopru.thedot.core.FrameMetrics;
+import com.qopru.thedot.core.QualityGovernor;
+import com.qopru.thedot.core.RenderBuffer;
+import com.qopru.thedot.core.SensorRing;
+import com.qopru.thedot.core.Simulation;
+import com.qopru.thedot.core.WorkerPool;
+import com.qopru.thedot.core.WorldSnapshot;
+import com.qopru.thedot.core.input.FilteredInput;
+import com.qopru.thedot.core.input.InputFilter;
+import com.qopru.thedot.core.input.TraceRecorder;
+import com.qopru.thedot.core.input.TraceReplay;
+import com.qopru.thedot.core.interfaces.Haptics;
+import com.qopru.thedot.core.interfaces.InputSource;
+import com.qopru.thedot.core.math.Bounds;
+import com.qopru.thedot.engine.objects.AbstractAnimated;
+import com.qopru.thedot.engine.objects.AnimatedEnemy;
+import com.qopru.thedot.engine.objects.AnimatedGate;
+import com.qopru.thedot.engine.objects.AnimatedGravityWell;
+import com.qopru.thedot.interfaces.GameInitializer;
+import com.qopru.thedot.interfaces.GameRenderer;
+import com.qopru.thedot.interfaces.GameUpdater;
+import com.qopru.thedot.interfaces.PartialRenderer;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Android side of the game: runs the simulation with the device sensors and
+ * vibrator, and draws it.
+ * 
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public class GameEngine
+{
+    private static final String TAG = "GameEngine";
+    
+    private static final int X = 0;
+    private static final int Y = 1;
+    private static final int Z = 2;
+    
+    private final int DEFAULT_ORIENTATION;
+    Context context;
+    Vibrator vibrator;
+    
+    // Created once the surface size is known
+    volatile Simulation simulation;
+    // Accelerometer readings, in game axes.
+    // About a second of samples at the fastest sensor rates.
+    final SensorRing sensors = new SensorRing(256);
+    // What the simulation reads from the samples
+    final FilteredInput input = new FilteredInput(sensors, InputFilter.Kind.AVERAGE);
+    // Moves crowds of enemies in parallel, null on devices with few cores.
+    // One core is left to the rendering.
+    final WorkerPool workerPool;
+    // Makes the next level while one is played
+    final ExecutorService levelExecutor = Executors.newSingleThreadExecutor(new ThreadFactory()
+    {
+        @Override
+        public Thread newThread(final Runnable r)
+        {
+            Thread t = new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                    r.run();
+                }
+            }, "LevelMaker");
+            t.setDaemon(true);
+            return t;
+        }
+    });
+    // Pause taps not applied yet. They are applied by the game loop before
+    // a step, so that a recording knows exactly when they happened.
+    final AtomicInteger pauseToggles = new AtomicInteger();
+    
+    // Traces for the next game, taken when it starts
+    volatile File recordFile;
+    volatile File replayFile;
+    volatile boolean replayRealTime;
+    // Recording or replaying the current game, null if not
+    volatile TraceRecorder recorder;
+    volatile TraceReplay replay;
+    // Filter to go back to after a replay
+    InputFilter.Kind filterBeforeReplay;
+        
+    // Game metrics proportional to screen
+    Bounds gameBounds;
+    float unitPixels;
+    // Size of the surface the metrics are computed for
+    int surfaceWidth;
+    int surfaceHeight;
+    // Surface width at full resolution
+    int fullSurfaceWidth;
+
+    public GameEngine(Context context)
+    {
+        this.context = context;
+        DEFAULT_ORIENTATION = U.getDeviceDefaultOrientation(context);
+        vibrator = (Vibrator) context.getSystemService(Context.VIBRATOR_SERVICE);
+        int cores = Runtime.getRuntime().availableProcessors();
+        workerPool = cores > 2 ? new WorkerPool(cores - 1) : null;
+    }
+    
+    public void destroy()
+    {
+        if (workerPool != null)
+            workerPool.shutdown();
+        levelExecutor.shutdown();
+        stopRecording();
+        stopReplay();
+    }
+
+    /**
+     * Shows or hides the frame time metrics on screen.
+     * 
+     * @param visible
+     */
+    public void setMetricsOverlay(boolean visible)
+    {
+        metricsOverlay = visible;
+    }
+    
+    /**
+     * Redraws only the region where the objects were and are, instead of
+     * the whole surface, while playing.
+     * 
+     * @param partialRedraw
+     */
+    public void setPartialRedraw(boolean partialRedraw)
+    {
+        this.partialRedraw = partialRedraw;
+    }
+    
+    /**
+     * Changes the rendering quality, applied from the next frame.
+     * The surface resolution is not handled here: when it changes, the
+     * rendering metrics follow the new canvas size.
+     * 
+     * @param quality
+     */
+    public void setQuality(QualityGovernor.Quality quality)
+    {
+        if (quality == null)
+            throw new IllegalArgumentException("quality must not be null");
+        this.quality = quality;
+    }
+    
+    /**
+     * Changes how the accelerometer samples become the input of the game.
+     * The latency and jitter of the filter are shown in the metrics overlay.
+     * 
+     * @param kind 
+     */
+    public void setInputFilter(InputFilter.Kind kind)
+    {
+        input.setFilter(kind);
+    }
+    
+    public void togglePause()
+    {
+        pauseToggles.incrementAndGet();
+    }
+    
+    /**
+     * Records the next game into a file, with what is needed to play it
+     * again the same: the seed of the levels, and the accelerometer samples
+     * used at each step.
+     * A game starts every time the game thread starts. The recording ends
+     * with the game.
+     * 
+     * @param file null to not record the next game.
+     */
+    public void recordNextGame(File file)
+    {
+        recordFile = file;
+    }
+    
+    /**
+     * Plays the next game from a recorded file instead of the accelerometer.
+     * Pause taps are ignored meanwhile, the recording decides. When it ends
+     * the game is paused, and goes on with the accelerometer.
+     * The bounds of the game are the recorded ones, whatever the size of
+     * the screen.
+     * 
+     * @param file null to play the next game with the accelerometer.
+     * @param realTime false to run the steps as fast as the device can,
+     * true to run them at the pace they were recorded.
+     */
+    public void replayNextGame(File file, boolean realTime)
+    {
+        replayRealTime = realTime;
+        replayFile = file;
+    }
+    
+    // -------------------------------------------------------------------------
+
+    private void init(Canvas c)
+    {
+        Rect bounds = c.getClipBounds();
+        
+        fullSurfaceWidth = bounds.width();
+        measure(bounds);
+        
+        // Recalculate bounds
+        Rect r = new Rect(bounds);
+        int gw = r.width(), gh = r.height();
+        // Make a "centering"
+        r.left = -gw / 2;
+        r.top = -gh / 2;
+        r.right = +gw / 2;
+        r.bottom = +gh / 2;
+        // Convert into unit measurement
+        if (unitPixels != 0)
+        {
+            r.left /= unitPixels;
+            r.top /= unitPixels;
+            r.right /= unitPixels;
+            r.bottom /= unitPixels;
+        }
+        gameBounds = new Bounds(r.left, r.top, r.right, r.bottom);
+        
+        // The levels are made from a known seed, so that the game can be
+        // recorded and replayed
+        long seed = new Random().nextLong();
+        stopRecording();
+        stopReplay();
+        startReplay();
+        if (replay != null)
+        {
+            seed = replay.getSeed();
+            gameBounds = replay.getBounds();
+        }
+        else
+            startRecording(seed);
+        pauseToggles.set(0);
+        input.restart();
+        
+        Simulation sim = new Simulation(gameBounds, input, haptics, new Random(seed));
+        sim.setWorkerPool(workerPool);
+        sim.setLevelExecutor(levelExecutor);
+        sim.start(System.nanoTime());
+        simulation = sim;
+        renderInit();
+    }
+    
+    /**
+     * Computes the rendering metrics for a surface size.
+     * 
+     * @param bounds 
+     */
+    private void measure(Rect bounds)
+    {
+        surfaceWidth = bounds.width();
+        surfaceHeight = bounds.height();
+        
+        // Caltulate the unit
+        unitPixels = bounds.width() > bounds.height() ?
+            bounds.height() / UNIT_FRACTION :
+            bounds.width() / UNIT_FRACTION;
+    }
+    
+    // -------------------------------------------------------------------------
+    
+    final Haptics haptics = new Haptics()
+    {
+        @Override
+        public void vibrate(long millis)
+        {
+            vibrator.vibrate(millis);
+        }
+    };
+    
+    private void update(long stepTime, float deltaT)
+    {
+        Simulation sim = simulation;
+        if (sim == null)
+            return;
+        
+        TraceReplay rp = replay;
+        if (rp != null)
+        {
+            replay(sim, rp, stepTime, deltaT);
+            return;
+        }
+        
+        if (pauseToggles.getAndSet(0) % 2 == 1)
+            sim.togglePause();
+        TraceRecorder rc = recorder;
+        if (rc != null)
+            rc.update(sim, stepTime, deltaT);
+        else
+            sim.update(stepTime, deltaT);
+    }
+    
+    /**
+     * Runs the replayed steps in place of a step of the game loop.
+     */
+    private void replay(Simulation sim, TraceReplay rp, long stepTime, float deltaT)
+    {
+        boolean more;
+        try
+        {
+            if (replayRealTime)
+                more = rp.advance(sim, stepTime);
+            else
+            {
+                // As many steps as fit in the time of one
+                long end = System.nanoTime() + (long) (deltaT * FixedTimestep.NANOS_PER_MILLI);
+                do
+                {
+                    more = rp.step(sim);
+                }
+                while (more && System.nanoTime() < end);
+            }
+        }
+        catch (IOException e)
+        {
+            Log.w(TAG, "Replay stopped", e);
+            more = false;
+        }
+        if (more)
+            return;
+        
+        stopReplay();
+        pauseToggles.set(0);
+        if (sim.getStatus() != Simulation.Status.PAUSE)
+            sim.togglePause();
+    }
+    
+    // -------------------------------------------------------------------------
+    
+    private void startRecording(long seed)
+    {
+        File file = recordFile;
+        recordFile = null;
+        if (file == null)
+            return;
+        try
+        {
+            TraceRecorder rc = new TraceRecorder(new FileOutputStream(file).getChannel(), seed, gameBounds);
+            input.setRecorder(rc);
+            recorder = rc;
+        }
+        catch (IOException e)
+        {
+            Log.w(TAG, "Cannot record to "+file, e);
+        }
+    }
+    
+    private void stopRecording()
+    {
+        TraceRecorder rc = recorder;
+        if (rc == null)
+            return;
+        recorder = null;
+        input.setRecorder(null);
+        try
+        {
+            rc.close();
+        }
+        catch (IOException e)
+        {
+            Log.w(TAG, "Recording failed", e);
+        }
+    }
+    
+    private void startReplay()
+    {
+        File file = replayFile;
+        replayFile = null;
+        if (file == null)
+            return;
+        FileInputStream in = null;
+        try
+        {
+            in = new FileInputStream(file);
+            TraceReplay rp = new TraceReplay(in.getChannel(), input);
+            filterBeforeReplay = input.getFilter();
+            replay = rp;
+        }
+        catch (IOException e)
+        {
+            Log.w(TAG, "Cannot replay "+file, e);
+            if (in != null)
+                try {in.close();} catch (IOException ignored) {}
+        }
+    }
+    
+    private void stopReplay()
+    {
+        TraceReplay rp = replay;
+        if (rp == null)
+            return;
+        replay = null;
+        input.setFilter(filterBeforeReplay);
+        try
+        {
+            rp.close();
+        }
+        catch (IOException e)
+        {
+            Log.w(TAG, "Cannot close the replay", e);
+        }
+    }
+    
+    // -------------------------------------------------------------------------
+    
+    // Fraction to determine how much a unit is.
+    // the minimum of either game width or height gets divided by this
+    // and thus the game 'unit' is obtained.
+    private static final int UNIT_FRACTION = 100;
+    
+    Paint backgroundPaint;
+    Paint playerPaint;
+    Paint messagePaint;
+    Paint messagePaintBkg;
+    Paint paintBlackFill;
+    Paint paintWhiteFill;
+    Paint paintHelpTextLeft;
+    Paint paintHelpTextRight;
+    Paint paintHelpTextCenter;
+
+    float fontScale;
+    
+    // Sprites used to draw all the objects of a kind, each one at its position.
+    AnimatedEnemy enemySprite;
+    AnimatedGate gateSprite;
+    AnimatedGravityWell wellSprite;
+    
+    // Frame time measurements, filled by the game loop
+    final FrameMetrics metrics = new FrameMetrics();
+    final MetricsOverlay overlay = new MetricsOverlay(metrics, input);
+    volatile boolean metricsOverlay;
+    Paint paintMetrics;
+    
+    volatile QualityGovernor.Quality quality = QualityGovernor.Quality.HIGH;
+    // What the paints and sprites are currently set to
+    QualityGovernor.Quality appliedQuality;
+    
+    AnimatedEnemy helpPageEnemy;
+    AnimatedGate helpPageGate;
+    AnimatedGravityWell helpPageGravtyWell;
+    
+    // Reused by every frame, so that drawing allocates nothing
+    final Rect frameBounds = new Rect();
+    final RectF dotOval = new RectF();
+    final Rect pauseRect = new Rect();
+    final Rect textBounds = new Rect();
+    private static final String COUNTDOWN_TEXT = "Start in ";
+    final char[] countdownText = new char[COUNTDOWN_TEXT.length() + 10];
+    
+    // Partial redraw: the snapshot the dirty region was made from, to be
+    // drawn by the frame that follows
+    volatile boolean partialRedraw;
+    WorldSnapshot dirtySnapshot;
+    // Covered by the objects of the previous frame
+    final Rect drawnArea = new Rect();
+    // The previous frame drew more than the objects, or did not track them
+    boolean fullRedraw = true;
+    final Rect clipBounds = new Rect();
+    int playerDotX, playerDotY;
+    
+    // The frame is recorded, then drawn on the canvas
+    static final int PAINT_BACKGROUND = 0;
+    static final int PAINT_PLAYER = 1;
+    static final int PAINT_MESSAGE_BKG = 2;
+    static final int PAINT_METRICS = 3;
+    static final int SPRITE_WELL = 4;
+    static final int SPRITE_ENEMY = 5;
+    static final int SPRITE_GATE = 6;
+    static final int LAYER_PAUSE = 7;
+    static final int LAYER_COUNTDOWN = 8;
+    // Drawn in this order, what is in the same depth in any order
+    static final int DEPTH_BACKGROUND = 0;
+    static final int DEPTH_OBJECTS = 1;
+    // The dot goes over the objects, also into the gate
+    static final int DEPTH_PLAYER = 2;
+    static final int DEPTH_MESSAGE = 3;
+    static final int DEPTH_MESSAGE_TOP = 4;
+    static final int DEPTH_METRICS = 5;
+    final RenderBuffer commands = new RenderBuffer();
+    final CanvasBackend backend = new CanvasBackend();
+    
+    // Static overlays, drawn once in a layer and then copied
+    final Rect panelRect = new Rect();
+    final Layer pauseLayer = new Layer()
+    {
+        @Override
+        void render(Canvas c, int width, int height)
+        {
+            // The layer is the panel, drawn in screen coordinates
+            c.save();
+            c.translate(-panelRect.left, -panelRect.top);
+            drawPausePanel(c, frameBounds);
+            c.restore();
+        }
+    };
+    // Seconds the countdown layer shows, 0 when it must be drawn again
+    int countdownShown;
+    int countdownLength;
+    float countdownWidth;
+    // The message paint aligned left, for the layer
+    Paint countdownPaint;
+    final Layer countdownLayer = new Layer()
+    {
+        @Override
+        void render(Canvas c, int width, int height)
+        {
+            c.drawText(countdownText, 0, countdownLength, -textBounds.left, -textBounds.top, countdownPaint);
+        }
+    };
+    
+    /**
+     * Initializes rendering.
+     */
+    private void renderInit()
+    {
+        // The sprites are kept when the surface changes, only resized
+        if (enemySprite == null)
+        {
+            enemySprite = new AnimatedEnemy(0, 0, unitPixels);
+            wellSprite = new AnimatedGravityWell(0, 0, 0, unitPixels);
+            gateSprite = new AnimatedGate(0, 0, unitPixels);
+
+            helpPageEnemy = new AnimatedEnemy(-10, -10, unitPixels);
+            helpPageGravtyWell = new AnimatedGravityWell(0, -20, -20, unitPixels);
+            helpPageGate = new AnimatedGate(10, 10, unitPixels);
+        }
+        else
+        {
+            enemySprite.setUnitPixels(unitPixels);
+            wellSprite.setUnitPixels(unitPixels);
+            gateSprite.setUnitPixels(unitPixels);
+
+            helpPageEnemy.setUnitPixels(unitPixels);
+            helpPageGravtyWell.setUnitPixels(unitPixels);
+            helpPageGate.setUnitPixels(unitPixels);
+        }
+        
+        // Text follows the surface when it's not at full resolution
+        fontScale = context.getResources().getDisplayMetrics().scaledDensity;
+        if (fullSurfaceWidth > 0)
+            fontScale = fontScale * surfaceWidth / fullSurfaceWidth;
+        
+        backgroundPaint = new Paint();
+        backgroundPaint.setColor(Color.WHITE);
+        backgroundPaint.setStyle(Style.FILL);
+        
+        playerPaint = new Paint();
+        playerPaint.setColor(Color.BLACK);
+        playerPaint.setStyle(Style.FILL);
+        playerPaint.setAntiAlias(true);
+    
+        messagePaintBkg = new Paint();
+        messagePaintBkg.setColor(Color.WHITE);
+        messagePaintBkg.setStyle(Style.FILL);
+        messagePaintBkg.setAntiAlias(true);
+        messagePaint = new Paint();
+        messagePaint.setColor(Color.BLACK);
+        messagePaint.setStyle(Style.FILL);
+        messagePaint.setAntiAlias(true);
+        messagePaint.setTextSize(18 * fontScale);
+        messagePaint.setTextAlign(Paint.Align.CENTER);
+        countdownPaint = new Paint(messagePaint);
+        countdownPaint.setTextAlign(Paint.Align.LEFT);
+            
+        paintBlackFill = new Paint();
+        paintBlackFill.setColor(Color.BLACK);
+        paintBlackFill.setStyle(Style.FILL);
+        paintBlackFill.setAntiAlias(true);    
+        paintWhiteFill = new Paint();
+        paintWhiteFill.setColor(Color.WHITE);
+        paintWhiteFill.setStyle(Style.FILL);
+        paintWhiteFill.setAntiAlias(true);
+        
+        paintHelpTextLeft = new Paint();
+        paintHelpTextLeft.setColor(Color.BLACK);
+        paintHelpTextLeft.setStyle(Style.FILL);
+        paintHelpTextLeft.setAntiAlias(true);
+        paintHelpTextLeft.setTextSize(16 * fontScale);
+        paintHelpTextLeft.setTextAlign(Paint.Align.LEFT);
+        paintHelpTextRight = new Paint();
+        paintHelpTextRight.setColor(Color.BLACK);
+        paintHelpTextRight.setStyle(Style.FILL);
+        paintHelpTextRight.setAntiAlias(true);
+        paintHelpTextRight.setTextSize(16 * fontScale);
+        paintHelpTextRight.setTextAlign(Paint.Align.RIGHT);
+        paintHelpTextCenter = new Paint();
+        paintHelpTextCenter.setColor(Color.BLACK);
+        paintHelpTextCenter.setStyle(Style.FILL);
+        paintHelpTextCenter.setAntiAlias(true);
+        paintHelpTextCenter.setTextSize(16 * fontScale);
+        paintHelpTextCenter.setTextAlign(Paint.Align.CENTER);
+        
+        paintMetrics = new Paint();
+        paintMetrics.setColor(Color.RED);
+        paintMetrics.setStyle(Style.FILL);
+        paintMetrics.setTextSize(10 * fontScale);
+        paintMetrics.setTextAlign(Paint.Align.LEFT);
+        
+        backend.setPaint(PAINT_BACKGROUND, backgroundPaint);
+        backend.setPaint(PAINT_PLAYER, playerPaint);
+        backend.setPaint(PAINT_MESSAGE_BKG, messagePaintBkg);
+        backend.setPaint(PAINT_METRICS, paintMetrics);
+        backend.setSprite(SPRITE_WELL, wellSprite);
+        backend.setSprite(SPRITE_ENEMY, enemySprite);
+        backend.setSprite(SPRITE_GATE, gateSprite);
+        backend.setLayer(LAYER_PAUSE, pauseLayer);
+        backend.setLayer(LAYER_COUNTDOWN, countdownLayer);
+        
+        appliedQuality = null;
+    }
+    
+    /**
+     * Sets paints and sprites to the current quality.
+     */
+    private void applyQuality()
+    {
+        QualityGovernor.Quality q = quality;
+        
+        playerPaint.setAntiAlias(q.antiAlias);
+        messagePaintBkg.setAntiAlias(q.antiAlias);
+        messagePaint.setAntiAlias(q.antiAlias);
+        countdownPaint.setAntiAlias(q.antiAlias);
+        paintBlackFill.setAntiAlias(q.antiAlias);
+        paintWhiteFill.setAntiAlias(q.antiAlias);
+        paintHelpTextLeft.setAntiAlias(q.antiAlias);
+        paintHelpTextRight.setAntiAlias(q.antiAlias);
+        paintHelpTextCenter.setAntiAlias(q.antiAlias);
+        
+        // Sprites of a kind share the paints
+        enemySprite.setAntiAlias(q.antiAlias);
+        gateSprite.setAntiAlias(q.antiAlias);
+        wellSprite.setAntiAlias(q.antiAlias);
+        
+        enemySprite.setAnimationStep(q.animationStep);
+        gateSprite.setAnimationStep(q.animationStep);
+        wellSprite.setAnimationStep(q.animationStep);
+        helpPageEnemy.setAnimationStep(q.animationStep);
+        helpPageGate.setAnimationStep(q.animationStep);
+        helpPageGravtyWell.setAnimationStep(q.animationStep);
+        
+        // Paints and sizes changed: the layers are out of date
+        pauseLayer.invalidate();
+        countdownShown = 0;
+        
+        appliedQuality = q;
+    }
+    
+    /**
+     * Rendering loop.
+     * Runs on game loop, draws the latest published snapshot of the game.
+     * 
+     * @param c canvas where to draw.
+     * @param frameTime time of this frame in nanoseconds.
+     * @return timestamp of the newest sensor sample the frame depends on.
+     */
+    private long render(Canvas c, long frameTime)
+    {
+        // Don't draw on a null canvas
+        if (c == null)
+            return InputSource.NO_SAMPLE;
+        
+        WorldSnapshot s = dirtySnapshot != null ? dirtySnapshot : simulation.getSnapshots().acquire();
+        dirtySnapshot = null;
+        float interpolation = s.getInterpolation(frameTime);
+        // Only while playing the frame follows the input
+        long inputTimestamp = Simulation.Status.PLAY.equals(s.status) ? s.inputTimestamp : InputSource.NO_SAMPLE;
+
+        Rect bounds = frameBounds;
+        bounds.set(0, 0, c.getWidth(), c.getHeight());
+        // What is redrawn: the whole surface, or the dirty region locked
+        Rect clip = clipBounds;
+        c.getClipBounds(clip);
+        int left = bounds.left;
+        int top = bounds.top;
+        int w = bounds.width();
+        int h = bounds.height();
+        
+        // Surface resolution changed: redo the rendering metrics
+        if (w != surfaceWidth || h != surfaceHeight)
+        {
+            measure(bounds);
+            renderInit();
+        }
+        if (appliedQuality != quality)
+            applyQuality();
+        
+        // Center point
+        int centerX = w / 2;
+        int centerY = h / 2;
+        
+        // What this frame draws, for the dirty region of the next one
+        if (partialRedraw)
+            objectArea(s, interpolation, w, h, drawnArea);
+        fullRedraw = !partialRedraw || !Simulation.Status.PLAY.equals(s.status) || metricsOverlay;
+        
+        placeDot(s, interpolation, left, top, w, h);
+        
+        // All the sprites show the game time of this frame
+        long animationTime = s.getAnimationTime(interpolation);
+        wellSprite.setTime(animationTime);
+        enemySprite.setTime(animationTime);
+        gateSprite.setTime(animationTime);
+        helpPageEnemy.setTime(animationTime);
+        helpPageGravtyWell.setTime(animationTime);
+        helpPageGate.setTime(animationTime);
+        
+        RenderBuffer b = commands;
+        b.clear();
+        
+        // Clear screen
+        b.rect(DEPTH_BACKGROUND, PAINT_BACKGROUND, clip.left, clip.top, clip.right, clip.bottom);
+        
+        // Draw gravity wells, should be only positive
+        for (int i = 0; i < s.wellCount; i++)
+        {
+            wellSprite.setPosition(s.wellX[i], s.wellY[i]);
+            wellSprite.record(b, DEPTH_OBJECTS, SPRITE_WELL, w, h);
+        }
+        
+        // Draw enemies
+        for (int i = 0; i < s.enemyCount; i++)
+        {
+            enemySprite.setPosition(
+                s.prevEnemyX[i] + (s.enemyX[i] - s.prevEnemyX[i]) * interpolation,
+                s.prevEnemyY[i] + (s.enemyY[i] - s.prevEnemyY[i]) * interpolation);
+            enemySprite.record(b, DEPTH_OBJECTS, SPRITE_ENEMY, w, h);
+        }
+        
+        // Draw the exit gate
+        if (s.hasGate)
+        {
+            gateSprite.setPosition(s.gateX, s.gateY);
+            gateSprite.record(b, DEPTH_OBJECTS, SPRITE_GATE, w, h);
+        }
+        
+        // Draw player
+        float dotSize = Simulation.DOT_SIZE * unitPixels;
+        
+        if (s.deathAnimation)
+            dotSize -= dotSize * s.deathAnimationProgress;
+        else if (s.endingAnimation)
+            dotSize -= dotSize * s.endingAnimationProgress;
+        
+        b.oval(DEPTH_PLAYER, PAINT_PLAYER, playerDotX - dotSize, playerDotY - dotSize, playerDotX + dotSize, playerDotY + dotSize);
+        
+        // Nothing else while dying
+        if (!s.deathAnimation)
+        {
+            // Draw countdown
+            if (Simulation.Status.COUNTDOWN.equals(s.status))
+            {
+                int seconds = (int)(s.countdown/1000f)+1;
+                if (seconds != countdownShown)
+                {
+                    countdownShown = seconds;
+                    countdownLength = writeCountdown(seconds);
+                    countdownPaint.getTextBounds(countdownText, 0, countdownLength, textBounds);
+                    countdownWidth = countdownPaint.measureText(countdownText, 0, countdownLength);
+                    countdownLayer.invalidate();
+                }
+                b.rect(DEPTH_MESSAGE, PAINT_MESSAGE_BKG, textBounds.left, textBounds.top, textBounds.right, textBounds.bottom);
+                // The message is centered on its position
+                float textLeft = centerX - countdownWidth / 2 + textBounds.left;
+                float textTop = centerY - centerY/2 + textBounds.top;
+                b.layer(DEPTH_MESSAGE_TOP, LAYER_COUNTDOWN, textLeft, textTop, textLeft + textBounds.width(), textTop + textBounds.height());
+            }
+            
+            if (Simulation.Status.PAUSE.equals(s.status))
+                recordPauseScreen(b, bounds);
+            
+            if (metricsOverlay)
+            {
+                float lineHeight = paintMetrics.getTextSize() * 1.2f;
+                overlay.record(b, DEPTH_METRICS, PAINT_METRICS, left + unitPixels, top + lineHeight, lineHeight);
+            }
+        }
+        
+        // Skip what is out of the redrawn region, with a unit around for
+        // the strokes spilling out of the sprites
+        b.prepare(clip.left - unitPixels, clip.top - unitPixels, clip.right + unitPixels, clip.bottom + unitPixels);
+        b.execute(backend.on(c));
+        
+        return inputTimestamp;
+    }
+
+    /**
+     * Computes the region to lock, when only the objects change: where
+     * they were in the previous frame and where they are now.
+     * 
+     * @param frameTime
+     * @param dirty
+     * @return false to redraw the whole surface.
+     */
+    private boolean getDirtyRegion(long frameTime, Rect dirty)
+    {
+        dirtySnapshot = null;
+        if (!partialRedraw || fullRedraw || simulation == null || appliedQuality != quality)
+            return false;
+        WorldSnapshot s = simulation.getSnapshots().acquire();
+        // Overlays cover the whole surface
+        if (!Simulation.Status.PLAY.equals(s.status))
+            return false;
+        
+        dirtySnapshot = s;
+        objectArea(s, s.getInterpolation(frameTime), surfaceWidth, surfaceHeight, dirty);
+        dirty.union(drawnArea);
+        return true;
+    }
+    
+    /**
+     * Player's position in Pixels, kept in the surface.
+     * The logical 0,0 in units corresponds to the center of the screen.
+     * That is intented as a cartesian plane with 4 quadrants.
+     */
+    private void placeDot(WorldSnapshot s, float interpolation, int left, int top, int w, int h)
+    {
+        float renderX = s.prevPlayerX + (s.playerX - s.prevPlayerX) * interpolation;
+        float renderY = s.prevPlayerY + (s.playerY - s.prevPlayerY) * interpolation;
+        playerDotX = left + w / 2 + (int)(renderX * unitPixels);
+        playerDotY = top + h / 2 + (int)(renderY * unitPixels);
+        if (playerDotX < left)
+            playerDotX = left;
+        if (playerDotY < top)
+            playerDotY = top;
+        if (playerDotX > w)
+            playerDotX = w;
+        if (playerDotY > h)
+            playerDotY = h;
+    }
+    
+    /**
+     * Pixels covered by the objects of a frame, on a surface of w by h.
+     */
+    private void objectArea(WorldSnapshot s, float interpolation, int w, int h, Rect area)
+    {
+        int centerX = w / 2;
+        int centerY = h / 2;
+        area.setEmpty();
+        
+        float half = halfBox(wellSprite);
+        for (int i = 0; i < s.wellCount; i++)
+            addBox(area, centerX + s.wellX[i] * unitPixels, centerY + s.wellY[i] * unitPixels, half);
+        
+        half = halfBox(enemySprite);
+        for (int i = 0; i < s.enemyCount; i++)
+            addBox(area,
+                centerX + (s.prevEnemyX[i] + (s.enemyX[i] - s.prevEnemyX[i]) * interpolation) * unitPixels,
+                centerY + (s.prevEnemyY[i] + (s.enemyY[i] - s.prevEnemyY[i]) * interpolation) * unitPixels,
+                half);
+        
+        if (s.hasGate)
+            addBox(area, centerX + s.gateX * unitPixels, centerY + s.gateY * unitPixels, halfBox(gateSprite));
+        
+        placeDot(s, interpolation, 0, 0, w, h);
+        addBox(area, playerDotX, playerDotY, (Simulation.DOT_SIZE + 1) * unitPixels);
+    }
+    
+    /**
+     * @return half the side of the box of a sprite in pixels, with a unit
+     * around it for the strokes and the anti aliasing.
+     */
+    private float halfBox(AbstractAnimated sprite)
+    {
+        return (sprite.getW() / 2 + 1) * unitPixels;
+    }
+    
+    private static void addBox(Rect area, float x, float y, float half)
+    {
+        area.union((int)(x - half), (int)(y - half), (int)(x + half) + 1, (int)(y + half) + 1);
+    }
+    
+    /**
+     * Writes the countdown message in its buffer.
+     * 
+     * @param seconds left.
+     * @return length of the message.
+     */
+    private int writeCountdown(int seconds)
+    {
+        int length = COUNTDOWN_TEXT.length();
+        COUNTDOWN_TEXT.getChars(0, length, countdownText, 0);
+        int digits = 1;
+        for (int d = seconds; d >= 10; d /= 10)
+            digits++;
+        for (int i = digits - 1; i >= 0; i--)
+        {
+            countdownText[length + i] = (char)('0' + seconds % 10);
+            seconds /= 10;
+        }
+        return length + digits;
+    }
+
+    private void recordPauseScreen(RenderBuffer b, Rect bounds)
+    {
+        int w = bounds.width();
+        int h = bounds.height();
+        int centerX = w / 2;
+        int centerY = h / 2;
+        
+        panelRect.set(centerX - w/2 * 3/4, centerY - h/2 * 3/4, centerX + w/2 * 3/4, centerY + h/2 * 3/4);
+        b.layer(DEPTH_MESSAGE, LAYER_PAUSE, panelRect.left, panelRect.top, panelRect.right, panelRect.bottom);
+        
+        // The help sprites are drawn on top of the panel, at the frame the
+        // game was paused at
+        helpPageEnemy.record(b, DEPTH_MESSAGE_TOP, SPRITE_ENEMY, w, h);
+        helpPageGravtyWell.record(b, DEPTH_MESSAGE_TOP, SPRITE_WELL, w, h);
+        helpPageGate.record(b, DEPTH_MESSAGE_TOP, SPRITE_GATE, w, h);
+    }
+    
+    /**
+     * Draws the static part of the pause screen: the panel, the dot and
+     * the help texts.
+     * 
+     * @param c
+     * @param bounds of the screen.
+     */
+    private void drawPausePanel(Canvas c, Rect bounds)
+    {
+        int w = bounds.width();
+        int h = bounds.height();
+        int centerX = w / 2;
+        int centerY = h / 2;
+        
+        Rect r = pauseRect;
+        r.set(panelRect);
+        c.drawRect(r, paintBlackFill);
+        r.left += unitPixels;
+        r.top += unitPixels;
+        r.right -= unitPixels;
+        r.bottom -= unitPixels;
+        c.drawRect(r, paintWhiteFill);
+        
+        float dotSize = Simulation.DOT_SIZE * unitPixels;
+        dotOval.set(centerX - dotSize, centerY - dotSize, centerX + dotSize, centerY + dotSize);
+        c.drawArc(dotOval, 0, 360, true, playerPaint);
+        
+        c.drawText("Gravity Well", centerX - 17*unitPixels, centerY - 19*unitPixels, paintHelpTextLeft);
+        c.drawText("Enemies", centerX - 7*unitPixels, centerY - 9*unitPixels, paintHelpTextLeft);
+        c.drawText("Player", centerX - 3*unitPixels, centerY + 1*unitPixels, paintHelpTextRight);
+        c.drawText("Exit Gate", centerX + 5*unitPixels, centerY + 11*unitPixels, paintHelpTextRight);
+        
+        c.drawText("!! PAUSED !!", centerX, centerY - h/2 * 3/4 + 5 * unitPixels, paintHelpTextCenter);
+        c.drawText("TAP THE SCREEN TO RESUME", centerX, centerY + h/2 * 3/4 - 4 * unitPixels, paintHelpTextCenter);
+    }
+    
+    // -------------------------------------------------------------------------
+    
+    // Just pass the call directly
+    GameInitializer initializer = new GameInitializer()
+    {
+        @Override
+        public void init(Canvas c)
+        {
+            GameEngine.this.init(c);
+        }
+    };
+    
+    // Just pass the call directly
+    GameUpdater updater = new GameUpdater()
+    {
+        @Override
+        public void update(long stepTime, float deltaT)
+        {
+            GameEngine.this.update(stepTime, deltaT);
+        }
+    };
+    
+    // Just pass the call directly
+    GameRenderer renderer = new PartialRenderer()
+    {
+        @Override
+        public long render(Canvas canvas, long frameTime)
+        {
+            return GameEngine.this.render(canvas, frameTime);
+        }
+
+        @Override
+        public boolean getDirtyRegion(long frameTime, Rect dirty)
+        {
+            return GameEngine.this.getDirtyRegion(frameTime, dirty);
+        }
+    };
+    
+    // Runs on some system's loop - called event by system
+    MySensorEventListener sensorListener = new MySensorEventListener();
+    private class MySensorEventListener implements SensorEventListener
+    {
+        @Override
+        public void onSensorChanged(SensorEvent event)
+        {
+            if (event == null || event.values == null || event.values.length < 3)
+                return;
+            // The replay feeds the samples instead
+            if (replay != null)
+                return;
+            
+            // For phones and defaulted "portrait" devices, axes are based on device OBJECT, not SCREEN.
+            // Invert the axes in this case.
+            if (DEFAULT_ORIENTATION == Configuration.ORIENTATION_PORTRAIT)
+                sensors.add(toNanoTime(event.timestamp), event.values[Y], event.values[X], event.values[Z]);
+            else
+                sensors.add(toNanoTime(event.timestamp), -event.values[X], event.values[Y], event.values[Z]);
+        }
+
+        @Override
+        public void onAccuracyChanged(Sensor sensor, int accuracy)
+        {
+        }
+        
+        /**
+         * Sensor timestamps are in the elapsed realtime clock on most
+         * devices, in the uptime one on others. Brings them to the uptime
+         * one (System.nanoTime), the clock of the game loop.
+         */
+        private long toNanoTime(long timestamp)
+        {
+            long now = System.nanoTime();
+            long elapsed = SystemClock.elapsedRealtimeNanos();
+            if (Math.abs(elapsed - timestamp) < Math.abs(now - timestamp))
+                return timestamp + now - elapsed;
+            return timestamp;
+        }
+    };
+    
+    public FrameMetrics getMetrics()
+    {
+        return metrics;
+    }
+    
+    public GameInitializer getInitializer()
+    {
+        return initializer;
+    }
+
+    public GameUpdater getUpdater()
+    {
+        return updater;
+    }
+
+    public GameRenderer getRenderer()
+    {
+        return renderer;
+    }
+
+    public SensorEventListener getSensorListener()
+    {
+        return sensorListener;
+    }
+}
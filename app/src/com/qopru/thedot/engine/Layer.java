@@ -0,0 +1,76 @@
+package com.qopru.thedot.engine;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import com.qopru.thedot.engine.objects.AbstractAnimated;
+import com.qopru.thedot.engine.objects.BitmapPool;
+
+/**
+ * Static content drawn once into an offscreen bitmap, then copied on the
+ * screen with a single blit. It's drawn again only when invalidated, for a
+ * change of content, or when its size changes with the surface.
+ * The bitmap comes from the sprites bitmap pool.
+ *
+ * Used on the rendering thread only.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+abstract class Layer
+{
+    private Bitmap bitmap;
+    private Canvas canvas;
+    private boolean valid;
+
+    /**
+     * Draws the content of the layer.
+     * @param c canvas of the layer, 0,0 at its top left, transparent.
+     * @param width of the layer.
+     * @param height of the layer.
+     */
+    abstract void render(Canvas c, int width, int height);
+
+    /**
+     * The content changed: draws it again at the next draw.
+     */
+    void invalidate()
+    {
+        valid = false;
+    }
+
+    /**
+     * Copies the layer on the canvas, drawing it first if needed.
+     * @param c canvas where to draw.
+     * @param left position on the canvas.
+     * @param top position on the canvas.
+     * @param width of the layer.
+     * @param height of the layer.
+     */
+    void draw(Canvas c, float left, float top, int width, int height)
+    {
+        if (width <= 0 || height <= 0)
+            return;
+        if (bitmap == null || bitmap.getWidth() != width || bitmap.getHeight() != height)
+            resize(width, height);
+        if (!valid)
+        {
+            bitmap.eraseColor(Color.TRANSPARENT);
+            render(canvas, width, height);
+            valid = true;
+        }
+        c.drawBitmap(bitmap, left, top, null);
+    }
+
+    private void resize(int width, int height)
+    {
+        BitmapPool bitmaps = AbstractAnimated.getBitmapPool();
+        if (bitmap != null)
+            bitmaps.release(bitmap);
+        bitmap = bitmaps.acquire(width, height, Bitmap.Config.ARGB_8888);
+        if (canvas == null)
+            canvas = new Canvas(bitmap);
+        else
+            canvas.setBitmap(bitmap);
+        valid = false;
+    }
+}
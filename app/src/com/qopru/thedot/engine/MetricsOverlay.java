@@ -0,0 +1,121 @@
+package com.qopru.thedot.engine;
+
+import com.qopru.thedot.core.FrameMetrics;
+import com.qopru.thedot.core.RenderBuffer;
+import com.qopru.thedot.core.input.FilteredInput;
+
+/**
+ * Draws the frame metrics as text on top of the game.
+ * Text is composed in a reused char buffer, nothing is allocated per frame.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+class MetricsOverlay
+{
+    private static final long NANOS_PER_10_MICROS = 10000L;
+
+    private final FrameMetrics metrics;
+    private final FilteredInput input;
+    private final char[] line = new char[80];
+    private int length;
+
+    MetricsOverlay(FrameMetrics metrics, FilteredInput input)
+    {
+        this.metrics = metrics;
+        this.input = input;
+    }
+
+    /**
+     * @param buffer where to record the text.
+     * @param depth
+     * @param paint id of a left aligned paint.
+     * @param x left of the text
+     * @param y baseline of the first line
+     * @param lineHeight
+     */
+    void record(RenderBuffer buffer, int depth, int paint, float x, float y, float lineHeight)
+    {
+        for (int phase = 0; phase < FrameMetrics.PHASES; phase++)
+        {
+            length = 0;
+            append(FrameMetrics.getPhaseName(phase));
+            append(" p50 ");
+            appendMillis(metrics.getPercentileNanos(phase, 50));
+            append(" p95 ");
+            appendMillis(metrics.getPercentileNanos(phase, 95));
+            append(" p99 ");
+            appendMillis(metrics.getPercentileNanos(phase, 99));
+            append(" max ");
+            appendMillis(metrics.getMaxNanos(phase));
+            append(" ms");
+            buffer.text(depth, paint, line, 0, length, x, y);
+            y += lineHeight;
+        }
+
+        length = 0;
+        append("gc ");
+        appendNumber(metrics.getGcCount());
+        append(" in ");
+        appendNumber(metrics.getFrames());
+        append(" frames, last at ");
+        appendNumber(metrics.getLastGcFrame());
+        buffer.text(depth, paint, line, 0, length, x, y);
+        y += lineHeight;
+
+        length = 0;
+        append("input ");
+        append(input.getFilter().name());
+        append(" lat ");
+        appendMillis(input.getLatencyNanos());
+        append(" added ");
+        appendMillis(input.getAddedLatencyNanos());
+        append(" jit ");
+        appendMillis(input.getJitterNanos());
+        append(" ms");
+        buffer.text(depth, paint, line, 0, length, x, y);
+    }
+
+    private void append(String s)
+    {
+        int n = s.length();
+        if (n > line.length - length)
+            n = line.length - length;
+        s.getChars(0, n, line, length);
+        length += n;
+    }
+
+    private void appendNumber(long value)
+    {
+        if (value < 0)
+        {
+            append("-");
+            value = -value;
+        }
+        // Count the digits, then write them backwards
+        int digits = 1;
+        for (long v = value / 10; v > 0; v /= 10)
+            digits++;
+        if (digits > line.length - length)
+            return;
+        for (int i = length + digits - 1; i >= length; i--)
+        {
+            line[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        length += digits;
+    }
+
+    /**
+     * Appends nanoseconds as milliseconds with two decimals.
+     */
+    private void appendMillis(long nanos)
+    {
+        long hundredths = nanos / NANOS_PER_10_MICROS;
+        appendNumber(hundredths / 100);
+        append(".");
+        long decimals = hundredths % 100;
+        if (decimals < 10)
+            append("0");
+        appendNumber(decimals);
+    }
+}
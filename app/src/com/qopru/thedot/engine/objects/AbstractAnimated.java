@@ -0,0 +1,220 @@
+package com.qopru.thedot.engine.objects;
+
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import com.qopru.thedot.core.RenderBuffer;
+
+/**
+ * An abstract sprite.
+ * Sprites are reused when the surface changes. The bitmaps they draw from
+ * are taken from a pool shared by all of them.
+ * Animations run on the game time given by the engine, not on the wall
+ * clock: they stop while the game is paused and follow its speed.
+ * 
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public abstract class AbstractAnimated extends Drawable
+{
+    private static final BitmapPool bitmaps = new BitmapPool();
+    
+    long duration = 0;
+    final long totalFramesCount;
+    // Game time the animation is at, nanoseconds
+    long time = 0;
+    int frameIndex = 0;
+    // How many frames the animation advances at a time
+    int animationStep = 1;
+    float unitPixels;
+    
+    float x, y, w, h;
+    
+    // Reused by every draw
+    private final Rect tickBounds = new Rect();
+    
+    public AbstractAnimated(long totalFramesCount, float unitPixels)
+    {
+        this.totalFramesCount = totalFramesCount;
+        this.unitPixels = unitPixels;
+    }
+
+    public static BitmapPool getBitmapPool()
+    {
+        return bitmaps;
+    }
+
+    /**
+     * Follows a new surface resolution.
+     * @param unitPixels pixels of a game unit.
+     */
+    public void setUnitPixels(float unitPixels)
+    {
+        this.unitPixels = unitPixels;
+    }
+
+    public long getDuration()
+    {
+        return duration;
+    }
+
+    public void setDuration(long duration)
+    {
+        this.duration = duration;
+        updateFrame();
+    }
+
+    /**
+     * Lower quality: animation advances by more frames at a time, so that
+     * less distinct frames are drawn. Duration stays the same.
+     * @param animationStep 1 for all frames.
+     */
+    public void setAnimationStep(int animationStep)
+    {
+        if (animationStep < 1)
+            throw new IllegalArgumentException("animation step must be at least 1");
+        this.animationStep = animationStep;
+        updateFrame();
+    }
+
+    /**
+     * Moves the animation to a game time. Set once per frame, all the
+     * objects drawn with this sprite show the same frame.
+     * @param time nanoseconds of game time.
+     */
+    public void setTime(long time)
+    {
+        this.time = time;
+        updateFrame();
+    }
+
+    /**
+     * The frame shown at the current time: the animation loops every
+     * duration, advancing animationStep frames at a time.
+     */
+    private void updateFrame()
+    {
+        if (duration <= 0)
+        {
+            frameIndex = 0;
+            return;
+        }
+        long loop = duration * 1000000L;
+        int frame = (int)((time % loop) * totalFramesCount / loop);
+        frameIndex = frame - frame % animationStep;
+    }
+
+    /**
+     * Sets anti aliasing on the paints of this kind of sprite.
+     * @param antiAlias
+     */
+    public abstract void setAntiAlias(boolean antiAlias);
+
+    /**
+     * Position is the GAME COORDINATE position.
+     * @param x
+     * @param y
+     */
+    public void setPosition(float x, float y)
+    {
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Size is in GAME PROPORTIONS, not Canvas ones.
+     * @param w
+     * @param h
+     */
+    public void setSize(float w, float h)
+    {
+        this.w = w;
+        this.h = h;
+    }
+
+    public float getX()
+    {
+        return x;
+    }
+
+    public float getY()
+    {
+        return y;
+    }
+
+    public float getW()
+    {
+        return w;
+    }
+
+    public float getH()
+    {
+        return h;
+    }
+    
+    @Override
+    public void draw(Canvas c)
+    {
+        place(c.getWidth(), c.getHeight());
+        drawFrame(c, frameIndex, tickBounds);
+    }
+    
+    /**
+     * Records the current frame, instead of drawing it.
+     * @param buffer
+     * @param depth of the command.
+     * @param sprite id the backend draws this kind of sprite with.
+     * @param canvasWidth
+     * @param canvasHeight
+     */
+    public void record(RenderBuffer buffer, int depth, int sprite, int canvasWidth, int canvasHeight)
+    {
+        place(canvasWidth, canvasHeight);
+        buffer.sprite(depth, sprite, frameIndex, tickBounds.left, tickBounds.top, tickBounds.right, tickBounds.bottom);
+    }
+    
+    /**
+     * Computes the bounds of the frame.
+     */
+    private void place(int canvasWidth, int canvasHeight)
+    {
+        // Transform coordinates to canvas coordinates, of the whole canvas
+        // also when only a region of it is redrawn
+        // Center point
+        int centerX = canvasWidth / 2;
+        int centerY = canvasHeight / 2;
+        int ax = (int)(centerX + unitPixels * x);
+        int ay = (int)(centerY + unitPixels * y);
+        
+        tickBounds.set(ax - (int)(w*unitPixels) / 2, 
+            ay - (int)(h*unitPixels) / 2,
+            ax + (int)(w*unitPixels) / 2,
+            ay + (int)(h*unitPixels) / 2);
+    }
+    
+    @Override
+    public void setAlpha(int alpha)
+    {
+    }
+
+    @Override
+    public void setColorFilter(ColorFilter cf)
+    {
+    }
+
+    @Override
+    public int getOpacity()
+    {
+        return 100;
+    }
+
+    /**
+     * Draw a single frame of the animation.
+     * Only depends on the kind of sprite, not on this one's state: any
+     * sprite of a kind can draw the frames recorded by the others.
+     * @param c canvas where to draw.
+     * @param frame index of the frame.
+     * @param bounds the bounds specific to this sprite only.
+     */
+    public abstract void drawFrame(Canvas c, int frame, Rect bounds);
+}
@@ -0,0 +1,72 @@
+package com.qopru.thedot.engine.objects;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+/**
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public class AnimatedEnemy extends AbstractAnimated
+{
+    // DEFAULT DURATION
+    private static final int DURATION = 500;
+    // More frames count means more fluit, but takes more resources
+    private static final int FRAMES_COUNT = 60*DURATION/1000;
+
+    private static final Paint paint;
+    
+    static
+    {        
+        paint = new Paint();
+        paint.setColor(Color.BLACK);
+        paint.setStyle(Paint.Style.STROKE);
+        paint.setAntiAlias(true);
+    }
+    
+    // All the rotations, shared by the enemies
+    private static final RotationAtlas atlas = new RotationAtlas(FRAMES_COUNT, paint)
+    {
+        @Override
+        void drawShape(Canvas c, int bw, int bh)
+        {
+            c.drawArc(new RectF(bw/4, 0, bw*3/4, bh/2), 90, 180, false, paint);
+            c.drawArc(new RectF(bw/2, bh/4, bw, bh*3/4), 0, 180, false, paint);
+            c.drawArc(new RectF(bw/4, bh/2, bw *3/4, bh), 270, 180, false, paint);
+            c.drawArc(new RectF(0, bh/4, bw/2, bh*3/4), 180, 180, false, paint);
+        }
+    };
+
+    public void setX(float x)
+    {
+        this.x = x;
+    }
+
+    public void setY(float y)
+    {
+        this.y = y;
+    }
+    
+    public AnimatedEnemy(float x, float y, float unitPixels)
+    {
+        super(FRAMES_COUNT, unitPixels);
+        setDuration(DURATION);
+        setPosition(x, y);
+        setSize(3, 3);
+    }
+
+    @Override
+    public void setAntiAlias(boolean antiAlias)
+    {
+        atlas.setAntiAlias(antiAlias);
+    }
+
+    @Override
+    public void drawFrame(Canvas c, int frame, Rect bounds)
+    {
+        atlas.draw(c, frame, bounds);
+    }
+}
@@ -0,0 +1,72 @@
+package com.qopru.thedot.engine.objects;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Paint.Style;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+/**
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public class AnimatedGate extends AbstractAnimated
+{
+    // DEFAULT DURATION
+    private static final int DURATION = 3000;
+    // More frames count means more fluit, but takes more resources
+    private static final int FRAMES_COUNT = 60*DURATION/1000;
+    
+    private static final int STROKE_WIDTH = 2;
+    private static final Paint ovalPaint;
+    
+    static
+    {
+        ovalPaint = new Paint();
+        ovalPaint.setColor(Color.BLACK);
+        ovalPaint.setStyle(Style.STROKE);
+        ovalPaint.setStrokeWidth(STROKE_WIDTH);
+        ovalPaint.setAntiAlias(true);
+    }
+    
+    // All the rotations, shared by the gates
+    private static final RotationAtlas atlas = new RotationAtlas(FRAMES_COUNT, ovalPaint)
+    {
+        @Override
+        void drawShape(Canvas c, int width, int height)
+        {
+            RectF ref = new RectF(0, 0, width, height);
+            // cut out some space for the stroke width
+            ref.left += STROKE_WIDTH;
+            ref.right -= STROKE_WIDTH;
+            ref.top += STROKE_WIDTH;
+            ref.bottom -= STROKE_WIDTH;
+            float rw = ref.width();
+            // make the 'square' an oval.
+            ref.left += rw/4;
+            ref.right -= rw/4;
+            c.drawArc(ref, 0, 360, true, ovalPaint);
+        }
+    };
+    
+    public AnimatedGate(float x, float y, float unitPixels)
+    {
+        super(FRAMES_COUNT, unitPixels);
+        setDuration(DURATION);
+        setPosition(x, y);
+        setSize(6, 6);
+    }
+
+    @Override
+    public void setAntiAlias(boolean antiAlias)
+    {
+        atlas.setAntiAlias(antiAlias);
+    }
+
+    @Override
+    public void drawFrame(Canvas c, int frame, Rect bounds)
+    {
+        atlas.draw(c, frame, bounds);
+    }
+}
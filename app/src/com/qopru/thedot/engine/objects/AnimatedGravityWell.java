@@ -1,6 +1,5 @@
 package com.qopru.thedot.engine.objects;
 
-import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
@@ -31,6 +30,8 @@ public class AnimatedGravityWell extends AbstractAnimated
     
     float power; // negative means attraction
     
+    private final RectF oval = new RectF();
+    
     public AnimatedGravityWell(float power, float x, float y, float unitPixels)
     {
         super(FRAMES_COUNT, unitPixels);
@@ -47,13 +48,20 @@ public class AnimatedGravityWell extends AbstractAnimated
     }
 
     @Override
-    void drawTick(Canvas c, Rect bounds, Bitmap sprite, Canvas spriteCanvas)
+    public void setAntiAlias(boolean antiAlias)
+    {
+        paint.setAntiAlias(antiAlias);
+    }
+
+    @Override
+    public void drawFrame(Canvas c, int frame, Rect bounds)
     {
         // X:PI = curFrame:MAXFRAMES 
-        int idx = frameIndex > FRAMES_COUNT / 2 ? FRAMES_COUNT - frameIndex : frameIndex;
+        int idx = frame > FRAMES_COUNT / 2 ? FRAMES_COUNT - frame : frame;
         float delta = (float)idx / (float)FRAMES_COUNT;
         paint.setStrokeWidth((float)unitPixels - (float)unitPixels * 0.75f * delta);
 
-        c.drawArc(new RectF(bounds), 0, 360, true, paint);
+        oval.set(bounds);
+        c.drawArc(oval, 0, 360, true, paint);
     }
 }
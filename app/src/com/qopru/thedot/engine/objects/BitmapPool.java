@@ -0,0 +1,113 @@
+package com.qopru.thedot.engine.objects;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import com.qopru.thedot.core.ObjectPool;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sprite bitmaps kept for reuse, one pool for each size and config.
+ * Bitmaps come back erased.
+ * The sizes are only a few (one per kind of sprite and surface resolution)
+ * so they are looked up in a list.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public final class BitmapPool
+{
+    private final List<SizePool> sizes = new ArrayList<SizePool>();
+
+    /**
+     * @param width
+     * @param height
+     * @param config
+     * @return a transparent bitmap of that size and config.
+     */
+    public synchronized Bitmap acquire(int width, int height, Bitmap.Config config)
+    {
+        if (width <= 0 || height <= 0)
+            throw new IllegalArgumentException("width and height must be > 0");
+        if (config == null)
+            throw new IllegalArgumentException("config must not be null");
+        Bitmap bitmap = size(width, height, config).acquire();
+        bitmap.eraseColor(Color.TRANSPARENT);
+        return bitmap;
+    }
+
+    /**
+     * @param bitmap acquired from this pool, not used any more.
+     */
+    public synchronized void release(Bitmap bitmap)
+    {
+        if (bitmap == null)
+            throw new IllegalArgumentException("bitmap must not be null");
+        size(bitmap.getWidth(), bitmap.getHeight(), bitmap.getConfig()).release(bitmap);
+    }
+
+    /**
+     * @return acquires that reused a bitmap.
+     */
+    public synchronized long getHits()
+    {
+        long hits = 0;
+        for (int i = 0; i < sizes.size(); i++)
+            hits += sizes.get(i).getHits();
+        return hits;
+    }
+
+    /**
+     * @return acquires that made a new bitmap.
+     */
+    public synchronized long getMisses()
+    {
+        long misses = 0;
+        for (int i = 0; i < sizes.size(); i++)
+            misses += sizes.get(i).getMisses();
+        return misses;
+    }
+
+    /**
+     * @return bitmaps acquired and not released yet.
+     */
+    public synchronized int getOutstanding()
+    {
+        int outstanding = 0;
+        for (int i = 0; i < sizes.size(); i++)
+            outstanding += sizes.get(i).getOutstanding();
+        return outstanding;
+    }
+
+    private SizePool size(int width, int height, Bitmap.Config config)
+    {
+        for (int i = 0; i < sizes.size(); i++)
+        {
+            SizePool pool = sizes.get(i);
+            if (pool.width == width && pool.height == height && pool.config == config)
+                return pool;
+        }
+        SizePool pool = new SizePool(width, height, config);
+        sizes.add(pool);
+        return pool;
+    }
+
+    private static final class SizePool extends ObjectPool<Bitmap>
+    {
+        final int width;
+        final int height;
+        final Bitmap.Config config;
+
+        SizePool(int width, int height, Bitmap.Config config)
+        {
+            this.width = width;
+            this.height = height;
+            this.config = config;
+        }
+
+        @Override
+        protected Bitmap create()
+        {
+            return Bitmap.createBitmap(width, height, config);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.qopru.thedot.engine.objects;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+
+/**
+ * All the frames of a sprite that only rotates, drawn once in a grid of
+ * cells and then copied from it. One atlas is shared by all the sprites of
+ * a kind.
+ * The sprites are one color, so the atlas only keeps the alpha (ALPHA_8):
+ * copying a cell paints it with the color of the paint.
+ *
+ * Used on the rendering thread only.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+abstract class RotationAtlas
+{
+    private final int framesCount;
+    private final int columns;
+    // Color of the frames
+    private final Paint paint;
+
+    private Bitmap atlas;
+    private Canvas atlasCanvas;
+    private int cellWidth;
+    private int cellHeight;
+    private boolean valid;
+    private final Rect cell = new Rect();
+
+    /**
+     * @param framesCount frames of a whole turn.
+     * @param paint the shape is drawn with, and the frames copied with.
+     */
+    RotationAtlas(int framesCount, Paint paint)
+    {
+        if (framesCount < 1)
+            throw new IllegalArgumentException("frames count must be at least 1");
+        if (paint == null)
+            throw new IllegalArgumentException("paint must not be null");
+        this.framesCount = framesCount;
+        this.paint = paint;
+        this.columns = (int)Math.ceil(Math.sqrt(framesCount));
+    }
+
+    /**
+     * Draws the sprite not rotated, the atlas turns it for each frame.
+     * The shape must fit the circle inscribed in the cell, to not be cut
+     * when turned.
+     * @param c canvas of the cell, 0,0 at its top left.
+     * @param width of the cell.
+     * @param height of the cell.
+     */
+    abstract void drawShape(Canvas c, int width, int height);
+
+    /**
+     * Sets anti aliasing on the paint, the frames are drawn again at the
+     * next draw.
+     * @param antiAlias
+     */
+    void setAntiAlias(boolean antiAlias)
+    {
+        paint.setAntiAlias(antiAlias);
+        valid = false;
+    }
+
+    /**
+     * Copies a frame. The animation is a rotation, each frame is already
+     * drawn turned by its share of 360°.
+     * @param c canvas where to draw.
+     * @param frameIndex from 0 to the frames count excluded.
+     * @param bounds where to draw the frame, also its size.
+     */
+    void draw(Canvas c, int frameIndex, Rect bounds)
+    {
+        if (bounds.width() <= 0 || bounds.height() <= 0)
+            return;
+        if (!valid || bounds.width() != cellWidth || bounds.height() != cellHeight)
+            render(bounds.width(), bounds.height());
+
+        int left = (frameIndex % columns) * cellWidth;
+        int top = (frameIndex / columns) * cellHeight;
+        cell.set(left, top, left + cellWidth, top + cellHeight);
+        c.drawBitmap(atlas, cell, bounds, paint);
+    }
+
+    private void render(int width, int height)
+    {
+        BitmapPool bitmaps = AbstractAnimated.getBitmapPool();
+        if (atlas != null)
+            bitmaps.release(atlas);
+        int rows = (framesCount + columns - 1) / columns;
+        atlas = bitmaps.acquire(columns * width, rows * height, Bitmap.Config.ALPHA_8);
+        if (atlasCanvas == null)
+            atlasCanvas = new Canvas(atlas);
+        else
+            atlasCanvas.setBitmap(atlas);
+        cellWidth = width;
+        cellHeight = height;
+
+        for (int i = 0; i < framesCount; i++)
+        {
+            int left = (i % columns) * width;
+            int top = (i / columns) * height;
+            cell.set(left, top, left + width, top + height);
+            atlasCanvas.save();
+            atlasCanvas.clipRect(cell);
+            atlasCanvas.translate(left, top);
+            atlasCanvas.rotate(360f * i / framesCount, width / 2f, height / 2f);
+            drawShape(atlasCanvas, width, height);
+            atlasCanvas.restore();
+        }
+        valid = true;
+    }
+}
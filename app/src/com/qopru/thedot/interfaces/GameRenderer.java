@@ -0,0 +1,20 @@
+package com.qopru.thedot.interfaces;
+
+import android.graphics.Canvas;
+
+/**
+ * Rendering 'function type'.
+ * 
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public interface GameRenderer
+{
+    /**
+     * @param canvas
+     * @param frameTime the time, in nanoseconds, of the frame being drawn.
+     * Used to interpolate between the two latest physics steps.
+     * @return timestamp, in nanoseconds, of the newest sensor sample what was
+     * drawn depends on, InputSource.NO_SAMPLE if none.
+     */
+    public long render(Canvas canvas, long frameTime);
+}
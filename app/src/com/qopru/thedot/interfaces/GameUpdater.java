@@ -0,0 +1,16 @@
+package com.qopru.thedot.interfaces;
+
+/**
+ * Updating 'function type'.
+ * 
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public interface GameUpdater
+{
+    /**
+     * @param stepTime the time, in nanoseconds, this step corresponds to.
+     * When frames are paced by vsync, it derives from the vsync timestamps.
+     * @param deltaT the fixed step size, in milliseconds.
+     */
+    public void update(long stepTime, float deltaT);
+}
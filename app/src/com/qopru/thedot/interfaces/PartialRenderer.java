@@ -0,0 +1,23 @@
+package com.qopru.thedot.interfaces;
+
+import android.graphics.Rect;
+
+/**
+ * A renderer that can redraw only the part of the surface that changed.
+ * The game loop asks for the region before locking the canvas, then locks
+ * only that region: the rest of the surface keeps the previous frame.
+ * 
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public interface PartialRenderer extends GameRenderer
+{
+    /**
+     * Called before each frame is locked and rendered.
+     * 
+     * @param frameTime the time, in nanoseconds, of the frame to draw.
+     * @param dirty filled with the region that changed since the previous
+     * frame, empty if nothing did.
+     * @return false to redraw the whole surface instead.
+     */
+    public boolean getDirtyRegion(long frameTime, Rect dirty);
+}
@@ -0,0 +1,27 @@
+package com.qopru.thedot.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks, always with the gc profiler so that the allocation
+ * rate is reported next to the throughput.
+ * Accepts the usual JMH command line options, for example a regular
+ * expression to only run some benchmarks.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public class Benchmarks
+{
+    public static void main(String[] args) throws Exception
+    {
+        Options options = new OptionsBuilder()
+            .parent(new CommandLineOptions(args))
+            .addProfiler(GCProfiler.class)
+            .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,63 @@
+package com.qopru.thedot.core;
+
+import com.qopru.thedot.core.math.Vec2;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Accumulation of the gravity wells force on the dot, by number of wells,
+ * summing every well or reading the baked field.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GravityWellBenchmark
+{
+    @Param({"1", "10", "100"})
+    int wells;
+
+    @Param({"summed", "baked"})
+    String gravity;
+
+    Simulation sim;
+    final Vec2 acceleration = new Vec2();
+
+    @Setup
+    public void setup()
+    {
+        if (!"summed".equals(gravity) && !"baked".equals(gravity))
+            throw new IllegalArgumentException("unknown gravity: " + gravity);
+        sim = Worlds.frozen(0);
+        // One pulling, the others pulling or pushing, all over the field:
+        // some are out of reach and skipped, as it happens in game.
+        sim.setWellsPerLevel(wells);
+        // Baked with the level
+        sim.setBakedGravity("baked".equals(gravity));
+        sim.loadLevel(1);
+        sim.play();
+        sim.player.set(0, 0);
+    }
+
+    @Benchmark
+    public float applyGravityWells()
+    {
+        acceleration.set(0, 0);
+        sim.applyGravityWells(acceleration);
+        return acceleration.x + acceleration.y;
+    }
+}
@@ -0,0 +1,162 @@
+package com.qopru.thedot.core;
+
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Changing level on the game loop, with the next level made when needed or
+ * already made in the background while the current one was played.
+ * Levels have baked gravity, so that making one includes the field.
+ * Before measuring, the levels made in the background are checked to be
+ * the same as the ones made when needed, and changing level is checked to
+ * allocate nothing once the pools are warm.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LevelBenchmark
+{
+    private static final int WELLS = 10;
+    private static final int CHECKED_LEVELS = 5;
+    // Levels changed to fill the pools, before checking the allocations
+    private static final int WARM_LEVELS = 10;
+
+    // Makes the next level on the thread that asks for it
+    private static final Executor SAME_THREAD = new Executor()
+    {
+        @Override
+        public void execute(Runnable command)
+        {
+            command.run();
+        }
+    };
+
+    @Param({"5", "10000"})
+    int enemies;
+
+    @Param({"now", "background"})
+    String made;
+
+    ExecutorService executor;
+    Simulation sim;
+
+    @Setup
+    public void setup()
+    {
+        if (!"now".equals(made) && !"background".equals(made))
+            throw new IllegalArgumentException("unknown made: " + made);
+        executor = Executors.newSingleThreadExecutor();
+        checkSameLevels();
+        checkNoAllocations(null);
+        checkNoAllocations(SAME_THREAD);
+        sim = create("background".equals(made) ? executor : null);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        executor.shutdownNow();
+    }
+
+    /**
+     * The background has all the time of a level to make the next one: it
+     * must not be measured.
+     */
+    @Setup(org.openjdk.jmh.annotations.Level.Invocation)
+    public void awaitNextLevel()
+    {
+        awaitNextLevel(sim);
+    }
+
+    @Benchmark
+    public int loadLevel()
+    {
+        sim.loadLevel(sim.getCurrentLevel() + 1);
+        return sim.enemies.size();
+    }
+
+    private Simulation create(Executor levelExecutor)
+    {
+        Simulation sim = new Simulation(Worlds.BOUNDS, Worlds.NO_INPUT, Worlds.NO_HAPTICS, new Random(Worlds.SEED));
+        sim.setEnemiesPerLevel(enemies);
+        sim.setWellsPerLevel(WELLS);
+        sim.setBakedGravity(true);
+        sim.setLevelExecutor(levelExecutor);
+        sim.start(0);
+        return sim;
+    }
+
+    private void checkSameLevels()
+    {
+        Simulation now = create(null);
+        Simulation background = create(executor);
+        for (int level = 0; level < CHECKED_LEVELS; level++)
+        {
+            if (now.gate.getX() != background.gate.getX() || now.gate.getY() != background.gate.getY()
+                || now.enemies.size() != background.enemies.size()
+                || now.enemies.get(enemies - 1).getX() != background.enemies.get(enemies - 1).getX()
+                || now.gravityWells.get(WELLS - 1).getX() != background.gravityWells.get(WELLS - 1).getX()
+                || !now.level.gravityBaked || !background.level.gravityBaked)
+                throw new IllegalStateException("level " + level + " made in the background differs");
+            awaitNextLevel(background);
+            now.loadLevel(now.getCurrentLevel() + 1);
+            background.loadLevel(background.getCurrentLevel() + 1);
+        }
+    }
+
+    /**
+     * Once the pools hold enough for the current and the next level, the
+     * levels are made with the objects of the old ones.
+     *
+     * @param levelExecutor
+     */
+    private void checkNoAllocations(Executor levelExecutor)
+    {
+        Simulation pooled = create(levelExecutor);
+        for (int level = 0; level < WARM_LEVELS; level++)
+            pooled.loadLevel(pooled.getCurrentLevel() + 1);
+
+        long misses = pooled.getEnemyPool().getMisses() + pooled.getWellPool().getMisses()
+            + pooled.getGatePool().getMisses() + pooled.levelPool.getMisses();
+        long before = Allocations.current();
+        for (int level = 0; level < CHECKED_LEVELS; level++)
+            pooled.loadLevel(pooled.getCurrentLevel() + 1);
+        long allocated = Allocations.current() - before;
+
+        if (allocated != 0)
+            throw new IllegalStateException("changing level allocated " + allocated + " bytes");
+        if (misses != pooled.getEnemyPool().getMisses() + pooled.getWellPool().getMisses()
+            + pooled.getGatePool().getMisses() + pooled.levelPool.getMisses())
+            throw new IllegalStateException("the pools made new objects once warm");
+        // The current level, and the next one if made in advance
+        int levels = levelExecutor == null ? 1 : 2;
+        if (pooled.getEnemyPool().getOutstanding() != levels * enemies)
+            throw new IllegalStateException("enemies out of the pool: " + pooled.getEnemyPool().getOutstanding());
+    }
+
+    private static void awaitNextLevel(Simulation sim)
+    {
+        if (sim.levelPending)
+            sim.levelTask.await();
+    }
+}
@@ -0,0 +1,93 @@
+package com.qopru.thedot.core;
+
+import com.qopru.thedot.core.objects.Enemy;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Moving the enemies one by one or in parallel, by number of enemies: where
+ * the lines cross is the threshold worth using for the parallel path, see
+ * Simulation.PARALLEL_THRESHOLD_PER_THREAD. The enemies are swept around
+ * the crossovers it predicts, 2800 with 2 threads and 5600 with 4, which
+ * only show on at least as many cores as threads.
+ * With fewer cores than threads, the difference from the sequential path
+ * at a few enemies is what starting a parallel run costs.
+ * Before measuring, checks that the parallel moves give the same positions
+ * as the sequential ones.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelEnemiesBenchmark
+{
+    private static final int CHECKED_STEPS = 60;
+
+    @Param({"100", "1000", "2000", "2800", "4000", "5600", "8000", "10000", "50000"})
+    int enemies;
+
+    // 1 is the sequential path
+    @Param({"1", "2", "4"})
+    int threads;
+
+    Simulation sim;
+    WorkerPool pool;
+
+    @Setup
+    public void setup()
+    {
+        if (threads > 1)
+            pool = new WorkerPool(threads);
+        checkDeterminism();
+        sim = Worlds.frozen(enemies);
+        sim.setWorkerPool(pool, 1);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        if (pool != null)
+            pool.shutdown();
+    }
+
+    @Benchmark
+    public void moveEnemies()
+    {
+        sim.moveEnemies(Worlds.STEP_MILLIS / 1000f);
+    }
+
+    private void checkDeterminism()
+    {
+        Simulation sequential = Worlds.frozen(enemies);
+        Simulation parallel = Worlds.frozen(enemies);
+        parallel.setWorkerPool(pool, 1);
+        for (int step = 0; step < CHECKED_STEPS; step++)
+        {
+            sequential.moveEnemies(Worlds.STEP_MILLIS / 1000f);
+            parallel.moveEnemies(Worlds.STEP_MILLIS / 1000f);
+        }
+        for (int i = 0; i < enemies; i++)
+        {
+            Enemy a = sequential.enemies.get(i);
+            Enemy b = parallel.enemies.get(i);
+            if (a.getX() != b.getX() || a.getY() != b.getY())
+                throw new IllegalStateException("enemy " + i + " moved differently in parallel: "
+                    + a.getX() + ", " + a.getY() + " against " + b.getX() + ", " + b.getY());
+        }
+    }
+}
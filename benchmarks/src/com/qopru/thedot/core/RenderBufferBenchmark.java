@@ -0,0 +1,182 @@
+package com.qopru.thedot.core;
+
+import com.qopru.thedot.core.interfaces.RenderBackend;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Recording, preparing and executing a frame of render commands, on a
+ * backend that only counts the draw calls and the paint changes.
+ * The frame is like the game's: the background, the sprites of three kinds
+ * recorded mixed, some of them out of the screen or drawn twice, the dot.
+ * Before measuring, the counts and the order of the draws are checked.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RenderBufferBenchmark
+{
+    // A 1080x1920 portrait screen
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+    private static final int SPRITE_SIZE = 32;
+    private static final int BACKGROUND = 0;
+    private static final int DOT = 1;
+    // Sprite ids are from FIRST_SPRITE, one per kind
+    private static final int FIRST_SPRITE = 2;
+    private static final int KINDS = 3;
+    // Depths as in the game: the dot has its own, over the sprites
+    private static final int DEPTH_BACKGROUND = 0;
+    private static final int DEPTH_SPRITES = 1;
+    private static final int DEPTH_DOT = 2;
+    // One sprite in OFFSCREEN is out of the screen, one in DUPLICATE is
+    // recorded twice
+    private static final int OFFSCREEN = 10;
+    private static final int DUPLICATE = 20;
+
+    @Param({"100", "10000"})
+    int sprites;
+
+    float[] x;
+    float[] y;
+    RenderBuffer buffer;
+    CountingBackend backend;
+
+    @Setup
+    public void setup()
+    {
+        Random random = new Random(Worlds.SEED);
+        x = new float[sprites];
+        y = new float[sprites];
+        for (int i = 0; i < sprites; i++)
+        {
+            x[i] = random.nextFloat() * (WIDTH - SPRITE_SIZE);
+            y[i] = random.nextFloat() * (HEIGHT - SPRITE_SIZE);
+            if (i % OFFSCREEN == 0)
+                x[i] = -2 * SPRITE_SIZE;
+        }
+        buffer = new RenderBuffer();
+        backend = new CountingBackend();
+        checkCounts();
+    }
+
+    @Benchmark
+    public int frame()
+    {
+        buffer.clear();
+        buffer.rect(DEPTH_BACKGROUND, BACKGROUND, 0, 0, WIDTH, HEIGHT);
+        for (int i = 0; i < sprites; i++)
+        {
+            buffer.sprite(DEPTH_SPRITES, FIRST_SPRITE + i % KINDS, i, x[i], y[i], x[i] + SPRITE_SIZE, y[i] + SPRITE_SIZE);
+            if (i % DUPLICATE == 0)
+                buffer.sprite(DEPTH_SPRITES, FIRST_SPRITE + i % KINDS, i, x[i], y[i], x[i] + SPRITE_SIZE, y[i] + SPRITE_SIZE);
+        }
+        buffer.oval(DEPTH_DOT, DOT, WIDTH / 2 - 10, HEIGHT / 2 - 10, WIDTH / 2 + 10, HEIGHT / 2 + 10);
+        buffer.prepare(0, 0, WIDTH, HEIGHT);
+        backend.reset();
+        buffer.execute(backend);
+        return backend.calls;
+    }
+
+    private void checkCounts()
+    {
+        frame();
+        int offscreen = (sprites + OFFSCREEN - 1) / OFFSCREEN;
+        int duplicates = (sprites + DUPLICATE - 1) / DUPLICATE;
+        int expected = 1 + sprites - offscreen + 1;
+        if (buffer.getCount() != 1 + sprites + duplicates + 1)
+            throw new IllegalStateException("recorded " + buffer.getCount());
+        if (backend.calls != expected || buffer.getExecuted() != expected)
+            throw new IllegalStateException("executed " + backend.calls + " instead of " + expected);
+        // The background, then each kind of sprite once, then the dot
+        if (backend.paintChanges != 2 + KINDS || buffer.getPaintChanges() != backend.paintChanges)
+            throw new IllegalStateException("paint changed " + backend.paintChanges + " times");
+        if (!backend.depthOrdered || backend.last != DOT)
+            throw new IllegalStateException("not drawn as background, sprites, dot");
+    }
+
+    static final class CountingBackend implements RenderBackend
+    {
+        int calls;
+        int paintChanges;
+        // Each draw at the same depth or deeper than the one before
+        boolean depthOrdered;
+        int last;
+        private int paint;
+
+        void reset()
+        {
+            calls = 0;
+            paintChanges = 0;
+            depthOrdered = true;
+            last = -1;
+            paint = -1;
+        }
+
+        private static int depth(int id)
+        {
+            if (id == BACKGROUND)
+                return DEPTH_BACKGROUND;
+            if (id == DOT)
+                return DEPTH_DOT;
+            return DEPTH_SPRITES;
+        }
+
+        private void draw(int id)
+        {
+            if ((calls == 0 && id != BACKGROUND) || (calls > 0 && depth(id) < depth(last)))
+                depthOrdered = false;
+            last = id;
+            if (id != paint)
+                paintChanges++;
+            paint = id;
+            calls++;
+        }
+
+        @Override
+        public void rect(int paint, float left, float top, float right, float bottom)
+        {
+            draw(paint);
+        }
+
+        @Override
+        public void oval(int paint, float left, float top, float right, float bottom)
+        {
+            draw(paint);
+        }
+
+        @Override
+        public void sprite(int sprite, int frame, float left, float top, float right, float bottom)
+        {
+            draw(sprite);
+        }
+
+        @Override
+        public void layer(int layer, float left, float top, float right, float bottom)
+        {
+            draw(layer);
+        }
+
+        @Override
+        public void text(int paint, char[] text, int offset, int length, float x, float y)
+        {
+            draw(paint);
+        }
+    }
+}
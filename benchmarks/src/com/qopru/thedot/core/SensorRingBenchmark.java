@@ -0,0 +1,91 @@
+package com.qopru.thedot.core;
+
+import com.qopru.thedot.core.input.FilteredInput;
+import com.qopru.thedot.core.input.InputFilter;
+import com.qopru.thedot.core.math.Vec2;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The accelerometer samples: a sample arriving from the sensor, and the
+ * game loop reading them through each filter. On one thread, and with the
+ * sensor and the game loop on their own threads at the same time.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SensorRingBenchmark
+{
+    // Samples per step, sensor at its fastest and steps at 60Hz
+    private static final int SAMPLES_PER_READ = 4;
+    // 200Hz
+    private static final long SAMPLE_NANOS = 5000000L;
+
+    @Param({"AVERAGE", "RAW", "LOW_PASS", "ONE_EURO", "INTERPOLATED"})
+    String filter;
+
+    final SensorRing ring = new SensorRing(256);
+    FilteredInput input;
+    final Vec2 acceleration = new Vec2();
+    // Written by the sensor, read by the game loop for the step time
+    volatile long timestamp;
+
+    @Setup
+    public void setup()
+    {
+        input = new FilteredInput(ring, InputFilter.Kind.valueOf(filter));
+    }
+
+    // Each benchmark is a group, as the state is shared by the group
+    @Benchmark
+    @Group("add")
+    public void add()
+    {
+        timestamp += SAMPLE_NANOS;
+        ring.add(timestamp, 0.3f, -9.8f, 0.1f);
+    }
+
+    @Benchmark
+    @Group("addAndRead")
+    public float addAndRead()
+    {
+        for (int i = 0; i < SAMPLES_PER_READ; i++)
+            add();
+        input.read(timestamp, acceleration);
+        return acceleration.x + acceleration.y;
+    }
+
+    @Benchmark
+    @Group("threads")
+    @GroupThreads(1)
+    public void sensor()
+    {
+        add();
+    }
+
+    @Benchmark
+    @Group("threads")
+    @GroupThreads(1)
+    public float gameLoop()
+    {
+        input.read(timestamp, acceleration);
+        return acceleration.x + acceleration.y;
+    }
+}
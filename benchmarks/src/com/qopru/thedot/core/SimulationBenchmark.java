@@ -0,0 +1,53 @@
+package com.qopru.thedot.core;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A physics step, and the enemy collision check alone, by number of enemies.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimulationBenchmark
+{
+    @Param({"5", "100", "10000"})
+    int enemies;
+
+    Simulation sim;
+
+    @Setup
+    public void setup()
+    {
+        sim = Worlds.frozen(enemies);
+        // A step, for the path of the dot to check
+        sim.updateGame(Worlds.STEP_MILLIS);
+    }
+
+    @Benchmark
+    public void updateGame()
+    {
+        sim.updateGame(Worlds.STEP_MILLIS);
+    }
+
+    @Benchmark
+    public void handleEnemyCollision()
+    {
+        sim.handleEnemyCollision(0);
+    }
+}
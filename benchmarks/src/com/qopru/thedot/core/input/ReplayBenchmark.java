@@ -0,0 +1,164 @@
+package com.qopru.thedot.core.input;
+
+import com.qopru.thedot.core.SensorRing;
+import com.qopru.thedot.core.Simulation;
+import com.qopru.thedot.core.WorldSnapshot;
+import com.qopru.thedot.core.interfaces.Haptics;
+import com.qopru.thedot.core.math.Bounds;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A whole game replayed from an input trace, as fast as possible.
+ * The trace is either a captured one, given with -p trace=path, or a session
+ * scripted here and recorded in the setup, played with each filter.
+ * The setup checks that replaying gives the same game every time, the
+ * animations included.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReplayBenchmark
+{
+    // A 1080x1920 portrait screen
+    private static final Bounds BOUNDS = new Bounds(-50, -89, 50, 89);
+    private static final long SEED = 42;
+    // 60Hz steps, 20 seconds
+    private static final int STEPS = 1200;
+    private static final long STEP_NANOS = 1000000000L / 60;
+    private static final float STEP_MILLIS = 1000f / 60f;
+    // 200Hz sensor, give or take a millisecond
+    private static final long SAMPLE_NANOS = 5000000L;
+    private static final long SAMPLE_JITTER = 1000000L;
+    // Steps at which the session is paused or resumed
+    private static final int[] PAUSE_TOGGLES = {10, 500, 560};
+
+    private static final Haptics NO_HAPTICS = new Haptics()
+    {
+        @Override
+        public void vibrate(long millis)
+        {
+        }
+    };
+
+    // Path of a captured trace, empty for the scripted session
+    @Param({""})
+    String trace;
+
+    // Filter of the scripted session
+    @Param({"AVERAGE", "RAW", "LOW_PASS", "ONE_EURO", "INTERPOLATED"})
+    String filter;
+
+    byte[] data;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        int recorded = 0;
+        if (trace.isEmpty())
+            recorded = record(InputFilter.Kind.valueOf(filter));
+        else
+            data = Files.readAllBytes(new File(trace).toPath());
+
+        int first = replay();
+        if (first != replay() || (trace.isEmpty() && first != recorded))
+            throw new IllegalStateException("replays differ");
+    }
+
+    @Benchmark
+    public int replay() throws IOException
+    {
+        FilteredInput input = new FilteredInput(new SensorRing(256), InputFilter.Kind.AVERAGE);
+        TraceReplay replay = new TraceReplay(Channels.newChannel(new ByteArrayInputStream(data)), input);
+        Simulation sim = new Simulation(replay.getBounds(), input, NO_HAPTICS, new Random(replay.getSeed()));
+        sim.start(0);
+        while (replay.step(sim))
+        {
+        }
+        replay.close();
+        return fingerprint(sim);
+    }
+
+    /**
+     * Plays the scripted session, the device tilted around in circles with
+     * a pause in the middle, and keeps its trace.
+     *
+     * @param kind
+     * @return fingerprint of the game at the end.
+     */
+    private int record(InputFilter.Kind kind) throws IOException
+    {
+        SensorRing ring = new SensorRing(256);
+        FilteredInput input = new FilteredInput(ring, kind);
+        Simulation sim = new Simulation(BOUNDS, input, NO_HAPTICS, new Random(SEED));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TraceRecorder recorder = new TraceRecorder(Channels.newChannel(out), SEED, BOUNDS);
+        input.setRecorder(recorder);
+
+        Random sensor = new Random(SEED);
+        long sampleTime = 0;
+        int toggle = 0;
+        sim.start(0);
+        for (int i = 0; i < STEPS; i++)
+        {
+            long stepTime = i * STEP_NANOS;
+            // Samples arrive up to a sample after the step
+            while (sampleTime <= stepTime + SAMPLE_NANOS)
+            {
+                double t = sampleTime / 1e9;
+                ring.add(sampleTime,
+                    (float) (2 * Math.sin(t * 1.3) + sensor.nextGaussian() * 0.2),
+                    (float) (2 * Math.cos(t * 0.9) + sensor.nextGaussian() * 0.2),
+                    9.8f);
+                sampleTime += SAMPLE_NANOS - SAMPLE_JITTER + (long) (sensor.nextDouble() * 2 * SAMPLE_JITTER);
+            }
+            if (toggle < PAUSE_TOGGLES.length && PAUSE_TOGGLES[toggle] == i)
+            {
+                sim.togglePause();
+                toggle++;
+            }
+            recorder.update(sim, stepTime, STEP_MILLIS);
+        }
+        recorder.close();
+        data = out.toByteArray();
+        return fingerprint(sim);
+    }
+
+    private static int fingerprint(Simulation sim)
+    {
+        WorldSnapshot s = sim.getSnapshots().acquire();
+        int hash = sim.getCurrentLevel();
+        hash = 31 * hash + s.status.ordinal();
+        hash = 31 * hash + (int) (s.animationTime ^ (s.animationTime >>> 32));
+        hash = 31 * hash + Float.floatToIntBits(s.playerX);
+        hash = 31 * hash + Float.floatToIntBits(s.playerY);
+        for (int i = 0; i < s.enemyCount; i++)
+        {
+            hash = 31 * hash + Float.floatToIntBits(s.enemyX[i]);
+            hash = 31 * hash + Float.floatToIntBits(s.enemyY[i]);
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,118 @@
+package com.qopru.thedot.core.math;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The force kernels against the trigonometry they replaced.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ForceKernelBenchmark
+{
+    private static final int VECTORS = 1024;
+    private static final float MAX_DISTANCE = 50;
+    private static final float POWER = 15;
+    private static final float STEP = 0.4f;
+
+    @Param({"trigonometry", "exact", "approximate"})
+    String math;
+
+    ForceKernel kernel;
+    final float[] dx = new float[VECTORS];
+    final float[] dy = new float[VECTORS];
+    final Vec2 force = new Vec2();
+
+    @Setup
+    public void setup()
+    {
+        Random random = new Random(42);
+        for (int i = 0; i < VECTORS; i++)
+        {
+            // Also out of range ones, a quarter of them
+            dx[i] = (random.nextFloat() * 2 - 1) * MAX_DISTANCE * 1.25f;
+            dy[i] = (random.nextFloat() * 2 - 1) * MAX_DISTANCE * 1.25f;
+        }
+
+        if ("exact".equals(math))
+            kernel = ForceKernel.EXACT;
+        else if ("approximate".equals(math))
+            kernel = ForceKernel.APPROXIMATE;
+        else if (!"trigonometry".equals(math))
+            throw new IllegalArgumentException("unknown math: " + math);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VECTORS)
+    public float attraction()
+    {
+        force.set(0, 0);
+        if (kernel == null)
+        {
+            for (int i = 0; i < VECTORS; i++)
+                trigAttraction(force, dx[i], dy[i], POWER, MAX_DISTANCE);
+        }
+        else
+        {
+            for (int i = 0; i < VECTORS; i++)
+                kernel.addAttraction(force, dx[i], dy[i], POWER, MAX_DISTANCE);
+        }
+        return force.x + force.y;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VECTORS)
+    public float steering()
+    {
+        float sum = 0;
+        if (kernel == null)
+        {
+            for (int i = 0; i < VECTORS; i++)
+            {
+                double angle = Math.atan2(dy[i], dx[i]);
+                sum += STEP * (float) Math.cos(angle) + STEP * (float) Math.sin(angle);
+            }
+        }
+        else
+        {
+            for (int i = 0; i < VECTORS; i++)
+            {
+                float scale = kernel.scaleTo(dx[i], dy[i], STEP);
+                sum += dx[i] * scale + dy[i] * scale;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * The gravity well attraction as it was computed before the kernel.
+     */
+    static void trigAttraction(Vec2 force, float deltaX, float deltaY, float power, float maxDistance)
+    {
+        double distance = Math.sqrt(Math.pow(deltaX, 2) + Math.pow(deltaY, 2));
+        if (distance > maxDistance)
+            return;
+        distance++;
+        double angle = Math.atan2(deltaY, deltaX);
+        force.x += 1/distance * power * Math.cos(angle);
+        force.y += 1/distance * power * Math.sin(angle);
+    }
+}
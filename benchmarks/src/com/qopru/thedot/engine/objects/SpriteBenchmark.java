@@ -0,0 +1,66 @@
+package com.qopru.thedot.engine.objects;
+
+import android.graphics.Canvas;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Drawing a sprite, on a canvas that does not draw: measures the work done
+ * by the sprite itself to prepare a frame, game time advancing by a 60Hz
+ * frame at each draw.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpriteBenchmark
+{
+    // A 1080x1920 portrait screen, 100 units wide
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+    private static final float UNIT_PIXELS = WIDTH / 100f;
+    private static final long FRAME_NANOS = 1000000000L / 60;
+
+    @Param({"enemy", "gate", "well"})
+    String sprite;
+
+    AbstractAnimated animated;
+    Canvas canvas;
+    long time;
+
+    @Setup
+    public void setup()
+    {
+        canvas = new Canvas(WIDTH, HEIGHT);
+        if ("enemy".equals(sprite))
+            animated = new AnimatedEnemy(10, 20, UNIT_PIXELS);
+        else if ("gate".equals(sprite))
+            animated = new AnimatedGate(10, 20, UNIT_PIXELS);
+        else if ("well".equals(sprite))
+            animated = new AnimatedGravityWell(15, 10, 20, UNIT_PIXELS);
+        else
+            throw new IllegalArgumentException("unknown sprite: " + sprite);
+    }
+
+    @Benchmark
+    public void draw()
+    {
+        time += FRAME_NANOS;
+        animated.setTime(time);
+        animated.draw(canvas);
+    }
+}
@@ -0,0 +1,49 @@
+package android.graphics;
+
+/**
+ * Stand-in for the android class, to run the sprites on a plain JVM.
+ * Only keeps the size, pixels are not stored.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public final class Bitmap
+{
+    public enum Config {ALPHA_8, RGB_565, ARGB_4444, ARGB_8888}
+
+    private final int width;
+    private final int height;
+    private final Config config;
+
+    private Bitmap(int width, int height, Config config)
+    {
+        this.width = width;
+        this.height = height;
+        this.config = config;
+    }
+
+    public static Bitmap createBitmap(int width, int height, Config config)
+    {
+        if (width <= 0 || height <= 0)
+            throw new IllegalArgumentException("width and height must be > 0");
+        return new Bitmap(width, height, config);
+    }
+
+    public int getWidth()
+    {
+        return width;
+    }
+
+    public int getHeight()
+    {
+        return height;
+    }
+
+    public Config getConfig()
+    {
+        return config;
+    }
+
+    public void eraseColor(int color)
+    {
+    }
+}
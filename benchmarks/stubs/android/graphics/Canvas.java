@@ -0,0 +1,95 @@
+package android.graphics;
+
+/**
+ * Stand-in for the android class, to run the sprites on a plain JVM.
+ * Drawing does nothing: what is measured is the work done by the callers.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public class Canvas
+{
+    private int width;
+    private int height;
+
+    public Canvas(Bitmap bitmap)
+    {
+        this(bitmap.getWidth(), bitmap.getHeight());
+    }
+
+    /**
+     * Not in android: a canvas for a surface of the given size.
+     *
+     * @param width
+     * @param height
+     */
+    public Canvas(int width, int height)
+    {
+        this.width = width;
+        this.height = height;
+    }
+
+    public void setBitmap(Bitmap bitmap)
+    {
+        width = bitmap.getWidth();
+        height = bitmap.getHeight();
+    }
+
+    public int getWidth()
+    {
+        return width;
+    }
+
+    public int getHeight()
+    {
+        return height;
+    }
+
+    public Rect getClipBounds()
+    {
+        return new Rect(0, 0, width, height);
+    }
+
+    public boolean getClipBounds(Rect bounds)
+    {
+        bounds.set(0, 0, width, height);
+        return true;
+    }
+
+    public void drawArc(RectF oval, float startAngle, float sweepAngle, boolean useCenter, Paint paint)
+    {
+    }
+
+    public void drawCircle(float cx, float cy, float radius, Paint paint)
+    {
+    }
+
+    public void drawBitmap(Bitmap bitmap, Matrix matrix, Paint paint)
+    {
+    }
+
+    public void drawBitmap(Bitmap bitmap, Rect src, Rect dst, Paint paint)
+    {
+    }
+
+    public int save()
+    {
+        return 0;
+    }
+
+    public void restore()
+    {
+    }
+
+    public boolean clipRect(Rect rect)
+    {
+        return true;
+    }
+
+    public void translate(float dx, float dy)
+    {
+    }
+
+    public void rotate(float degrees, float px, float py)
+    {
+    }
+}
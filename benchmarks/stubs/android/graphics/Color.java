@@ -0,0 +1,13 @@
+package android.graphics;
+
+/**
+ * Stand-in for the android class, to run the sprites on a plain JVM.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public class Color
+{
+    public static final int BLACK = 0xFF000000;
+    public static final int WHITE = 0xFFFFFFFF;
+    public static final int TRANSPARENT = 0;
+}
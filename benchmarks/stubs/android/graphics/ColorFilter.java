@@ -0,0 +1,10 @@
+package android.graphics;
+
+/**
+ * Stand-in for the android class, to run the sprites on a plain JVM.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public class ColorFilter
+{
+}
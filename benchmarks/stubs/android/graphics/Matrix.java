@@ -0,0 +1,39 @@
+package android.graphics;
+
+/**
+ * Stand-in for the android class, to run the sprites on a plain JVM.
+ * Keeps the affine transform, as the real one does.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public class Matrix
+{
+    private float scaleX = 1, skewX, transX;
+    private float skewY, scaleY = 1, transY;
+
+    public void reset()
+    {
+        scaleX = scaleY = 1;
+        skewX = skewY = transX = transY = 0;
+    }
+
+    public void setRotate(float degrees, float px, float py)
+    {
+        double radians = Math.toRadians(degrees);
+        float sin = (float) Math.sin(radians);
+        float cos = (float) Math.cos(radians);
+        scaleX = cos;
+        skewX = -sin;
+        transX = sin * py + (1 - cos) * px;
+        skewY = sin;
+        scaleY = cos;
+        transY = -sin * px + (1 - cos) * py;
+    }
+
+    public boolean postTranslate(float dx, float dy)
+    {
+        transX += dx;
+        transY += dy;
+        return true;
+    }
+}
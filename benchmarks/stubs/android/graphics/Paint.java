@@ -0,0 +1,56 @@
+package android.graphics;
+
+/**
+ * Stand-in for the android class, to run the sprites on a plain JVM.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public class Paint
+{
+    public enum Style {FILL, STROKE, FILL_AND_STROKE}
+
+    private int color;
+    private Style style = Style.FILL;
+    private boolean antiAlias;
+    private float strokeWidth;
+
+    public void setColor(int color)
+    {
+        this.color = color;
+    }
+
+    public int getColor()
+    {
+        return color;
+    }
+
+    public void setStyle(Style style)
+    {
+        this.style = style;
+    }
+
+    public Style getStyle()
+    {
+        return style;
+    }
+
+    public void setAntiAlias(boolean antiAlias)
+    {
+        this.antiAlias = antiAlias;
+    }
+
+    public boolean isAntiAlias()
+    {
+        return antiAlias;
+    }
+
+    public void setStrokeWidth(float strokeWidth)
+    {
+        this.strokeWidth = strokeWidth;
+    }
+
+    public float getStrokeWidth()
+    {
+        return strokeWidth;
+    }
+}
@@ -0,0 +1,48 @@
+package android.graphics;
+
+/**
+ * Stand-in for the android class, to run the sprites on a plain JVM.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public final class Rect
+{
+    public int left, top, right, bottom;
+
+    public Rect()
+    {
+    }
+
+    public Rect(int left, int top, int right, int bottom)
+    {
+        set(left, top, right, bottom);
+    }
+
+    public Rect(Rect r)
+    {
+        set(r);
+    }
+
+    public void set(int left, int top, int right, int bottom)
+    {
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+    }
+
+    public void set(Rect r)
+    {
+        set(r.left, r.top, r.right, r.bottom);
+    }
+
+    public int width()
+    {
+        return right - left;
+    }
+
+    public int height()
+    {
+        return bottom - top;
+    }
+}
@@ -0,0 +1,48 @@
+package android.graphics;
+
+/**
+ * Stand-in for the android class, to run the sprites on a plain JVM.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public class RectF
+{
+    public float left, top, right, bottom;
+
+    public RectF()
+    {
+    }
+
+    public RectF(float left, float top, float right, float bottom)
+    {
+        set(left, top, right, bottom);
+    }
+
+    public RectF(Rect r)
+    {
+        set(r.left, r.top, r.right, r.bottom);
+    }
+
+    public void set(float left, float top, float right, float bottom)
+    {
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+    }
+
+    public void set(Rect r)
+    {
+        set(r.left, r.top, r.right, r.bottom);
+    }
+
+    public float width()
+    {
+        return right - left;
+    }
+
+    public float height()
+    {
+        return bottom - top;
+    }
+}
@@ -0,0 +1,65 @@
+package com.qopru.thedot.engine.objects;
+
+import android.graphics.Canvas;
+import com.qopru.thedot.core.Allocations;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Drawing the sprites, game time advancing by a 60Hz frame at each draw:
+ * once a sprite has drawn its first frames, drawing allocates nothing.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public class SpriteAllocationTest
+{
+    // A 1080x1920 portrait screen, 100 units wide
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+    private static final float UNIT_PIXELS = WIDTH / 100f;
+    private static final long FRAME_NANOS = 1000000000L / 60;
+    // Draws to warm up, then to check
+    private static final int WARM_DRAWS = 20000;
+    private static final int CHECKED_DRAWS = 10000;
+
+    private final Canvas canvas = new Canvas(WIDTH, HEIGHT);
+    private long time;
+
+    @Test
+    public void drawsEnemyWithoutAllocating()
+    {
+        checkNoAllocations(new AnimatedEnemy(10, 20, UNIT_PIXELS));
+    }
+
+    @Test
+    public void drawsGateWithoutAllocating()
+    {
+        checkNoAllocations(new AnimatedGate(10, 20, UNIT_PIXELS));
+    }
+
+    @Test
+    public void drawsWellWithoutAllocating()
+    {
+        checkNoAllocations(new AnimatedGravityWell(15, 10, 20, UNIT_PIXELS));
+    }
+
+    private void checkNoAllocations(AbstractAnimated animated)
+    {
+        for (int i = 0; i < WARM_DRAWS; i++)
+            draw(animated);
+        long before = Allocations.current();
+        for (int i = 0; i < CHECKED_DRAWS; i++)
+            draw(animated);
+        long allocated = Allocations.current() - before;
+
+        assertEquals(CHECKED_DRAWS + " draws allocated", 0, allocated);
+    }
+
+    private void draw(AbstractAnimated animated)
+    {
+        time += FRAME_NANOS;
+        animated.setTime(time);
+        animated.draw(canvas);
+    }
+}
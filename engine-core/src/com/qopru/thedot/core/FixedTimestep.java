@@ -0,0 +1,154 @@
+package com.qopru.thedot.core;
+
+import com.qopru.thedot.core.interfaces.Clock;
+
+/**
+ * Accumulates real elapsed time and hands it out in physics steps of
+ * constant size.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public class FixedTimestep
+{
+    public static final long NANOS_PER_MILLI = 1000000L;
+    public static final long NANOS_PER_SECOND = 1000000000L;
+
+    // Maximum number of steps to run for a single frame.
+    // When the loop is later than this, the remaining time is dropped (the game
+    // slows down for a moment) instead of piling up more and more updates.
+    private static final int MAX_STEPS_PER_FRAME = 6;
+    // Real time fed to the accumulator is clamped to this, so that a long stall
+    // (surface recreation, debugger) does not turn into a burst of updates.
+    private static final long MAX_FRAME_TIME = NANOS_PER_SECOND / 4;
+
+    private final Clock clock;
+    // Step size requested, can be changed from other threads
+    private volatile long stepNanos;
+    // Step size in use for the current frame
+    private long step;
+    private boolean started;
+    private long previousTime;
+    private long frameTime;
+    // Real time not yet consumed by steps
+    private long accumulator;
+    private int steps;
+    // Steps that could not be caught up with, since the beginning
+    private volatile long droppedSteps;
+
+    public FixedTimestep(int updatesPerSecond)
+    {
+        this(updatesPerSecond, Clock.SYSTEM);
+    }
+
+    public FixedTimestep(int updatesPerSecond, Clock clock)
+    {
+        if (clock == null)
+            throw new IllegalArgumentException("clock must not be null");
+        this.clock = clock;
+        setUpdateRate(updatesPerSecond);
+        step = stepNanos;
+    }
+
+    /**
+     * @param updatesPerSecond how many steps are run per second of game time.
+     */
+    public final void setUpdateRate(int updatesPerSecond)
+    {
+        if (updatesPerSecond <= 0)
+            throw new IllegalArgumentException("update rate must be positive");
+        stepNanos = NANOS_PER_SECOND / updatesPerSecond;
+    }
+
+    /**
+     * Adds the real time passed since the previous frame, read from the clock.
+     */
+    public void advance()
+    {
+        advance(clock.nanoTime());
+    }
+
+    /**
+     * Adds the real time passed since the previous frame.
+     *
+     * @param now current time in nanoseconds, on the same base of the clock.
+     */
+    public void advance(long now)
+    {
+        if (!started)
+        {
+            previousTime = now;
+            started = true;
+        }
+        long elapsed = now - previousTime;
+        previousTime = now;
+        if (elapsed > MAX_FRAME_TIME)
+            elapsed = MAX_FRAME_TIME;
+        accumulator += elapsed;
+        frameTime = now;
+        step = stepNanos;
+        steps = 0;
+    }
+
+    /**
+     * Consumes a step from the accumulated time.
+     *
+     * @return false when no more steps must be run for this frame.
+     */
+    public boolean nextStep()
+    {
+        if (accumulator < step)
+            return false;
+
+        if (steps >= MAX_STEPS_PER_FRAME)
+        {
+            droppedSteps += accumulator / step;
+            accumulator %= step;
+            return false;
+        }
+
+        accumulator -= step;
+        steps++;
+        return true;
+    }
+
+    /**
+     * @return the real time, in nanoseconds, the last consumed step ends at.
+     */
+    public long getStepTime()
+    {
+        return frameTime - accumulator;
+    }
+
+    /**
+     * @return the size of the current step in milliseconds.
+     */
+    public float getStepMillis()
+    {
+        return (float) step / NANOS_PER_MILLI;
+    }
+
+    /**
+     * @return nanoseconds still missing before another step is due.
+     */
+    public long getTimeToNextStep()
+    {
+        return step - accumulator;
+    }
+
+    /**
+     * @return steps dropped because the loop was too late to run them.
+     */
+    public long getDroppedSteps()
+    {
+        return droppedSteps;
+    }
+
+    /**
+     * Forgets the accumulated time, the next frame starts from zero.
+     */
+    public void reset()
+    {
+        started = false;
+        accumulator = 0;
+    }
+}
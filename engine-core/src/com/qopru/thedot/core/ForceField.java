@@ -0,0 +1,107 @@
+package com.qopru.thedot.core;
+
+import com.qopru.thedot.core.math.Bounds;
+import com.qopru.thedot.core.math.ForceKernel;
+import com.qopru.thedot.core.math.Vec2;
+import com.qopru.thedot.core.objects.GravityWell;
+import java.util.List;
+
+/**
+ * The combined force of the gravity wells, computed once on a grid of
+ * points over the game bounds and then read by interpolating the four
+ * points around a position.
+ * Reading costs the same however many wells there are, at the price of
+ * precision close to the wells, where the force changes the most.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public final class ForceField
+{
+    private final float left;
+    private final float top;
+    private final float spacing;
+    // Grid points, including both borders
+    private final int columns;
+    private final int rows;
+    private final float[] forceX;
+    private final float[] forceY;
+    private final Vec2 force = new Vec2();
+
+    /**
+     * @param bounds area covered, in units.
+     * @param spacing distance between the grid points, in units.
+     */
+    public ForceField(Bounds bounds, float spacing)
+    {
+        if (bounds == null)
+            throw new IllegalArgumentException("bounds must not be null");
+        if (!(spacing > 0))
+            throw new IllegalArgumentException("spacing must be > 0");
+        this.left = bounds.left;
+        this.top = bounds.top;
+        this.spacing = spacing;
+        columns = Math.max(2, (int) Math.ceil(bounds.width() / spacing) + 1);
+        rows = Math.max(2, (int) Math.ceil(bounds.height() / spacing) + 1);
+        forceX = new float[columns * rows];
+        forceY = new float[columns * rows];
+    }
+
+    /**
+     * Computes the force of the wells on every point of the grid.
+     *
+     * @param wells
+     * @param kernel
+     * @param maxDistance reach of a well.
+     */
+    public void bake(List<GravityWell> wells, ForceKernel kernel, float maxDistance)
+    {
+        for (int r = 0; r < rows; r++)
+        {
+            float y = top + r * spacing;
+            for (int c = 0; c < columns; c++)
+            {
+                float x = left + c * spacing;
+                force.set(0, 0);
+                for (int i = 0; i < wells.size(); i++)
+                {
+                    GravityWell well = wells.get(i);
+                    kernel.addAttraction(force, well.getX() - x, well.getY() - y, well.getPower(), maxDistance);
+                }
+                forceX[r * columns + c] = force.x;
+                forceY[r * columns + c] = force.y;
+            }
+        }
+    }
+
+    /**
+     * Adds the force at a position, interpolated from the grid.
+     * Outside of the bounds, the force at the nearest border.
+     *
+     * @param x
+     * @param y
+     * @param force where the force is added.
+     */
+    public void sample(float x, float y, Vec2 force)
+    {
+        float gx = clamp((x - left) / spacing, columns - 1);
+        float gy = clamp((y - top) / spacing, rows - 1);
+        int c = Math.min((int) gx, columns - 2);
+        int r = Math.min((int) gy, rows - 2);
+        float u = gx - c;
+        float v = gy - r;
+
+        int i = r * columns + c;
+        int j = i + columns;
+        float w00 = (1 - u) * (1 - v);
+        float w10 = u * (1 - v);
+        float w01 = (1 - u) * v;
+        float w11 = u * v;
+        force.x += forceX[i] * w00 + forceX[i + 1] * w10 + forceX[j] * w01 + forceX[j + 1] * w11;
+        force.y += forceY[i] * w00 + forceY[i + 1] * w10 + forceY[j] * w01 + forceY[j + 1] * w11;
+    }
+
+    private static float clamp(float value, float max)
+    {
+        return value < 0 ? 0 : (value > max ? max : value);
+    }
+}
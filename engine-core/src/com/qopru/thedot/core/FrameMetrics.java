@@ -0,0 +1,126 @@
+package com.qopru.thedot.core;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * Registry of frame time measurements, a histogram for each phase of the
+ * game loop, plus garbage collections seen while running frames.
+ * Recording never allocates.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public class FrameMetrics
+{
+    // Phases of a frame
+    public static final int LOCK_CANVAS = 0;
+    // A physics step, on whichever thread runs them
+    public static final int UPDATE = 1;
+    public static final int RENDER = 2;
+    public static final int POST = 3;
+    // The whole frame, start to start
+    public static final int FRAME = 4;
+    // From the newest sensor sample the frame depends on, to the frame
+    // posted to the display
+    public static final int INPUT_TO_PRESENT = 5;
+    // All the physics steps run by a frame, when they run on its thread
+    public static final int FRAME_UPDATES = 6;
+    public static final int PHASES = 7;
+
+    private static final String[] PHASE_NAMES = {"lock", "update", "render", "post", "frame", "input", "updates"};
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[PHASES];
+
+    // Weakly reachable only: when it's gone a collection has happened.
+    private WeakReference<Object> gcSentinel;
+    private long gcCount;
+    private long frames;
+    // The frame that saw the last collection
+    private long lastGcFrame;
+
+    public FrameMetrics()
+    {
+        for (int i = 0; i < PHASES; i++)
+            histograms[i] = new LatencyHistogram();
+        gcSentinel = new WeakReference<Object>(new Object());
+    }
+
+    /**
+     * @param phase one of the phase constants.
+     * @param nanos how long it took.
+     */
+    public void record(int phase, long nanos)
+    {
+        histograms[phase].record(nanos);
+    }
+
+    /**
+     * To be called once at the end of each frame: checks whether the garbage
+     * collector ran during it.
+     */
+    public void endFrame()
+    {
+        frames++;
+        if (gcSentinel.get() != null)
+            return;
+
+        // Allocates, but only once per collection
+        gcCount++;
+        lastGcFrame = frames;
+        gcSentinel = new WeakReference<Object>(new Object());
+    }
+
+    public static String getPhaseName(int phase)
+    {
+        return PHASE_NAMES[phase];
+    }
+
+    public LatencyHistogram getHistogram(int phase)
+    {
+        return histograms[phase];
+    }
+
+    public long getPercentileNanos(int phase, double percentile)
+    {
+        return histograms[phase].getPercentileNanos(percentile);
+    }
+
+    public long getMaxNanos(int phase)
+    {
+        return histograms[phase].getMaxNanos();
+    }
+
+    /**
+     * Collections are detected once per frame at most, so this is a lower
+     * bound of the real count.
+     */
+    public long getGcCount()
+    {
+        return gcCount;
+    }
+
+    public long getFrames()
+    {
+        return frames;
+    }
+
+    /**
+     * A collection is seen by the first frame ending after it, the one its
+     * pause may have slowed down.
+     *
+     * @return the number of that frame for the last collection, counting
+     * frames from 1, or 0 if none was seen.
+     */
+    public long getLastGcFrame()
+    {
+        return lastGcFrame;
+    }
+
+    public void reset()
+    {
+        for (LatencyHistogram histogram: histograms)
+            histogram.reset();
+        gcCount = 0;
+        frames = 0;
+        lastGcFrame = 0;
+    }
+}
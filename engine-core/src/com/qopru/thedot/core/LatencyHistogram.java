@@ -0,0 +1,122 @@
+package com.qopru.thedot.core;
+
+/**
+ * Histogram of durations with fixed memory, recording doesn't allocate.
+ *
+ * Values are kept in microseconds in log-linear buckets: exact up to 32us,
+ * then each power of two is split in 16 buckets (about 6% precision), up to
+ * some 16 seconds. Longer values end in the last bucket, the max is exact.
+ *
+ * Meant to have a single writing thread; reading from another thread gives
+ * approximate but usable values.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public class LatencyHistogram
+{
+    private static final long NANOS_PER_MICRO = 1000L;
+
+    // Bits of precision kept after the leading one
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Values below this have a bucket each
+    private static final int LINEAR_LIMIT = SUB_BUCKETS * 2;
+    // Highest power of two tracked, in microseconds
+    private static final int MAX_MAGNITUDE = 23;
+    private static final int BUCKETS = LINEAR_LIMIT + (MAX_MAGNITUDE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private long totalCount;
+    private long totalNanos;
+    private long maxNanos;
+
+    /**
+     * @param nanos a duration in nanoseconds, negative ones are ignored.
+     */
+    public void record(long nanos)
+    {
+        if (nanos < 0)
+            return;
+        counts[bucketOf(nanos / NANOS_PER_MICRO)]++;
+        totalCount++;
+        totalNanos += nanos;
+        if (nanos > maxNanos)
+            maxNanos = nanos;
+    }
+
+    public void reset()
+    {
+        for (int i = 0; i < counts.length; i++)
+            counts[i] = 0;
+        totalCount = 0;
+        totalNanos = 0;
+        maxNanos = 0;
+    }
+
+    public long getCount()
+    {
+        return totalCount;
+    }
+
+    public long getMaxNanos()
+    {
+        return maxNanos;
+    }
+
+    public long getMeanNanos()
+    {
+        return totalCount == 0 ? 0 : totalNanos / totalCount;
+    }
+
+    /**
+     * @param percentile from 0 to 100.
+     * @return the upper bound of the bucket containing the percentile, in
+     * nanoseconds, never more than the max recorded. 0 if empty.
+     */
+    public long getPercentileNanos(double percentile)
+    {
+        if (totalCount == 0)
+            return 0;
+
+        long rank = (long) Math.ceil(percentile / 100d * totalCount);
+        if (rank < 1)
+            rank = 1;
+
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++)
+        {
+            seen += counts[i];
+            if (seen >= rank)
+            {
+                long upper = (bucketUpperBound(i) + 1) * NANOS_PER_MICRO - 1;
+                return upper < maxNanos ? upper : maxNanos;
+            }
+        }
+        return maxNanos;
+    }
+
+    static int bucketOf(long micros)
+    {
+        if (micros < LINEAR_LIMIT)
+            return (int) micros;
+
+        int magnitude = 63 - Long.numberOfLeadingZeros(micros);
+        if (magnitude > MAX_MAGNITUDE)
+            return BUCKETS - 1;
+
+        int shift = magnitude - SUB_BUCKET_BITS;
+        int mantissa = (int) (micros >> shift) - SUB_BUCKETS;
+        return LINEAR_LIMIT + (magnitude - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + mantissa;
+    }
+
+    static long bucketUpperBound(int bucket)
+    {
+        if (bucket < LINEAR_LIMIT)
+            return bucket;
+
+        int magnitude = (bucket - LINEAR_LIMIT) / SUB_BUCKETS + SUB_BUCKET_BITS + 1;
+        int mantissa = (bucket - LINEAR_LIMIT) % SUB_BUCKETS + SUB_BUCKETS;
+        int shift = magnitude - SUB_BUCKET_BITS;
+        return ((long) (mantissa + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,153 @@
+package com.qopru.thedot.core;
+
+import com.qopru.thedot.core.math.Bounds;
+import com.qopru.thedot.core.math.ForceKernel;
+import com.qopru.thedot.core.objects.Enemy;
+import com.qopru.thedot.core.objects.Gate;
+import com.qopru.thedot.core.objects.GravityWell;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Everything a level starts with: the objects, placed at random, and what
+ * is computed from them once per level.
+ * A level only depends on its seed and on the parameters it is made with,
+ * so it's the same whatever thread makes it and whenever. Once made it's
+ * only changed by the simulation that takes it over.
+ *
+ * Levels are reused: the objects come from pools and go back to them when
+ * the level is cleared, the lists, the grid and the field are kept.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+final class Level
+{
+    long seed;
+    int enemiesCount;
+    int wellsCount;
+
+    Gate gate;
+    final List<GravityWell> gravityWells = new ArrayList<GravityWell>();
+    final List<Enemy> enemies = new ArrayList<Enemy>();
+    // The gravity wells by their index, then the gate
+    final SpatialGrid grid;
+    // Combined force of the wells, made the first time it's baked
+    ForceField gravityField;
+    // If the field holds the force of these wells
+    boolean gravityBaked;
+
+    private final Bounds bounds;
+    private final Random random = new Random();
+    private final ObjectPool<Gate> gates;
+    private final ObjectPool<GravityWell> wells;
+    private final ObjectPool<Enemy> enemyPool;
+
+    /**
+     * @param bounds of the game.
+     * @param gates
+     * @param wells
+     * @param enemies
+     */
+    Level(Bounds bounds, ObjectPool<Gate> gates, ObjectPool<GravityWell> wells, ObjectPool<Enemy> enemies)
+    {
+        this.bounds = bounds;
+        this.gates = gates;
+        this.wells = wells;
+        this.enemyPool = enemies;
+        grid = new SpatialGrid(bounds, Simulation.GRAVITY_WELL_MAXDISTANCE);
+    }
+
+    /**
+     * Places the objects of a new level. The level must be clear.
+     *
+     * @param seed of the placement of the objects.
+     * @param enemiesCount
+     * @param wellsCount
+     * @param bakeWith kernel to bake the force of the wells with, null to
+     * not bake it.
+     */
+    void make(long seed, int enemiesCount, int wellsCount, ForceKernel bakeWith)
+    {
+        this.seed = seed;
+        this.enemiesCount = enemiesCount;
+        this.wellsCount = wellsCount;
+        random.setSeed(seed);
+
+        gate = gates.acquire();
+        gate.setPosition(randomX(), randomY());
+        for (int i = 0; i < wellsCount; i++)
+        {
+            GravityWell well = wells.acquire();
+            well.setPower(i == 0 ?
+                Simulation.GRAVITY_WELL_MAX :
+                (random.nextFloat() * 2 - 1) * Simulation.GRAVITY_WELL_MAX);
+            well.setPosition(randomX(), randomY());
+            gravityWells.add(well);
+        }
+        for (int i = 0; i < enemiesCount; i++)
+        {
+            Enemy enemy = enemyPool.acquire();
+            enemy.setPosition(randomX(), randomY());
+            enemies.add(enemy);
+        }
+
+        grid.clear();
+        for (int i = 0; i < gravityWells.size(); i++)
+        {
+            GravityWell well = gravityWells.get(i);
+            grid.add(i, well.getX(), well.getY());
+        }
+        grid.add(gravityWells.size(), gate.getX(), gate.getY());
+
+        gravityBaked = false;
+        if (bakeWith != null)
+            bake(bakeWith);
+    }
+
+    /**
+     * Computes the combined force of the wells on the field.
+     *
+     * @param kernel
+     */
+    private void bake(ForceKernel kernel)
+    {
+        if (gravityField == null)
+            gravityField = new ForceField(bounds, Simulation.GRAVITY_FIELD_SPACING);
+        gravityField.bake(gravityWells, kernel, Simulation.GRAVITY_WELL_MAXDISTANCE);
+        gravityBaked = true;
+    }
+
+    /**
+     * Gives the objects back to their pools.
+     */
+    void clear()
+    {
+        if (gate != null)
+            gates.release(gate);
+        gate = null;
+        wells.releaseAll(gravityWells);
+        enemyPool.releaseAll(enemies);
+        gravityBaked = false;
+    }
+
+    /**
+     * @param enemiesCount
+     * @param wellsCount
+     * @return if the level is made with these parameters.
+     */
+    boolean isMadeWith(int enemiesCount, int wellsCount)
+    {
+        return this.enemiesCount == enemiesCount && this.wellsCount == wellsCount;
+    }
+
+    private float randomX()
+    {
+        return random.nextFloat() * (bounds.width() - Gate.SIZE*4) + bounds.left + Gate.SIZE*2;
+    }
+
+    private float randomY()
+    {
+        return random.nextFloat() * (bounds.height() - Gate.SIZE*4) + bounds.top + Gate.SIZE*2;
+    }
+}
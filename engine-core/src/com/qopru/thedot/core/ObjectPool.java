@@ -0,0 +1,109 @@
+package com.qopru.thedot.core;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Objects kept for reuse, instead of being left to the garbage collector
+ * and made again. Acquired objects come as they were released: the caller
+ * sets them up.
+ * Counts how many acquires found an object ready (hits) or had to make one
+ * (misses), and how many objects are out. Once there are as many objects
+ * as ever out at the same time, acquiring and releasing allocate nothing.
+ *
+ * Thread safe: objects can be acquired on a thread and released on
+ * another.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public abstract class ObjectPool<T>
+{
+    private Object[] idle = new Object[16];
+    private int idleCount;
+
+    private long hits;
+    private long misses;
+    private int outstanding;
+
+    /**
+     * @return a new object, when there is none to reuse.
+     */
+    protected abstract T create();
+
+    @SuppressWarnings("unchecked")
+    public synchronized T acquire()
+    {
+        outstanding++;
+        if (idleCount == 0)
+        {
+            misses++;
+            return create();
+        }
+        hits++;
+        T object = (T) idle[--idleCount];
+        idle[idleCount] = null;
+        return object;
+    }
+
+    /**
+     * @param object acquired from this pool, not used any more.
+     */
+    public synchronized void release(T object)
+    {
+        if (object == null)
+            throw new IllegalArgumentException("object must not be null");
+        keep(object);
+    }
+
+    /**
+     * Releases all the objects of a list, which is then cleared.
+     *
+     * @param objects acquired from this pool, not used any more.
+     */
+    public synchronized void releaseAll(List<? extends T> objects)
+    {
+        for (int i = 0; i < objects.size(); i++)
+            keep(objects.get(i));
+        objects.clear();
+    }
+
+    private void keep(Object object)
+    {
+        if (idleCount == idle.length)
+            idle = Arrays.copyOf(idle, idle.length * 2);
+        idle[idleCount++] = object;
+        outstanding--;
+    }
+
+    /**
+     * @return acquires that reused an object.
+     */
+    public synchronized long getHits()
+    {
+        return hits;
+    }
+
+    /**
+     * @return acquires that made a new object.
+     */
+    public synchronized long getMisses()
+    {
+        return misses;
+    }
+
+    /**
+     * @return objects acquired and not released yet.
+     */
+    public synchronized int getOutstanding()
+    {
+        return outstanding;
+    }
+
+    /**
+     * @return objects ready to be reused.
+     */
+    public synchronized int getIdle()
+    {
+        return idleCount;
+    }
+}
@@ -0,0 +1,160 @@
+package com.qopru.thedot.core;
+
+/**
+ * Watches how long frames take and steps the rendering quality down when
+ * they don't fit the frame budget, then back up once there's headroom again.
+ *
+ * Frames are judged in windows: a window with too many late frames drops a
+ * tier, several windows in a row well within budget raise one. When a
+ * raised tier turns out too slow right away, the next raise waits longer.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public class QualityGovernor
+{
+    public enum Quality
+    {
+        HIGH(true, 1, 1f),
+        // No anti aliasing
+        MEDIUM(false, 1, 1f),
+        // Also half the animation frames and a smaller surface
+        LOW(false, 2, 0.75f),
+        // Quarter of the animation frames, half resolution
+        LOWEST(false, 4, 0.5f);
+
+        public final boolean antiAlias;
+        // Animation frames advance by this many at a time
+        public final int animationStep;
+        // Surface size relative to the view size
+        public final float resolutionScale;
+
+        Quality(boolean antiAlias, int animationStep, float resolutionScale)
+        {
+            this.antiAlias = antiAlias;
+            this.animationStep = animationStep;
+            this.resolutionScale = resolutionScale;
+        }
+    }
+
+    public interface Listener
+    {
+        /**
+         * Called on the game loop thread.
+         * @param quality
+         */
+        void onQualityChanged(Quality quality);
+    }
+
+    private static final Quality[] TIERS = Quality.values();
+
+    // Frames per judging window
+    private static final int WINDOW = 30;
+    // Late frames in a window that make quality drop
+    private static final int MISSES_TO_DEGRADE = 3;
+    // Average busy time, as a fraction of the budget, for a window to count
+    // as having headroom
+    private static final float HEADROOM = 0.6f;
+    // Windows with headroom in a row needed to raise quality
+    private static final int MIN_WINDOWS_TO_RESTORE = 4;
+    private static final int MAX_WINDOWS_TO_RESTORE = 64;
+
+    private final Listener listener;
+    private volatile long budgetNanos;
+    private volatile Quality quality = Quality.HIGH;
+
+    private int frames;
+    private int misses;
+    private long busyTotal;
+    private int headroomWindows;
+    private int windowsToRestore = MIN_WINDOWS_TO_RESTORE;
+    // Windows passed since the last raise
+    private int windowsSinceRestore = Integer.MAX_VALUE;
+    // The first window after a change is skipped: the change itself can
+    // make a few frames slow.
+    private boolean settling;
+
+    /**
+     * @param budgetNanos time available to a frame.
+     * @param listener notified of each change.
+     */
+    public QualityGovernor(long budgetNanos, Listener listener)
+    {
+        if (listener == null)
+            throw new IllegalArgumentException("listener must not be null");
+        this.listener = listener;
+        setBudget(budgetNanos);
+    }
+
+    public final void setBudget(long budgetNanos)
+    {
+        if (budgetNanos <= 0)
+            throw new IllegalArgumentException("budget must be positive");
+        this.budgetNanos = budgetNanos;
+    }
+
+    public Quality getQuality()
+    {
+        return quality;
+    }
+
+    /**
+     * @param busyNanos time the frame actually spent working, waits excluded.
+     */
+    public void onFrame(long busyNanos)
+    {
+        long budget = budgetNanos;
+        frames++;
+        busyTotal += busyNanos;
+        if (busyNanos > budget)
+            misses++;
+
+        if (frames < WINDOW)
+            return;
+
+        boolean late = misses >= MISSES_TO_DEGRADE;
+        boolean headroom = misses == 0 && busyTotal / frames < budget * HEADROOM;
+        frames = 0;
+        misses = 0;
+        busyTotal = 0;
+        if (windowsSinceRestore < Integer.MAX_VALUE)
+            windowsSinceRestore++;
+
+        if (settling)
+        {
+            settling = false;
+            return;
+        }
+
+        if (late)
+        {
+            headroomWindows = 0;
+            // Raised too early: be more careful next time
+            if (windowsSinceRestore <= 2 && windowsToRestore < MAX_WINDOWS_TO_RESTORE)
+                windowsToRestore *= 2;
+            if (quality.ordinal() < TIERS.length - 1)
+                change(TIERS[quality.ordinal() + 1]);
+            return;
+        }
+
+        if (!headroom)
+        {
+            headroomWindows = 0;
+            return;
+        }
+
+        headroomWindows++;
+        if (headroomWindows >= windowsToRestore && quality.ordinal() > 0)
+        {
+            headroomWindows = 0;
+            windowsSinceRestore = 0;
+            change(TIERS[quality.ordinal() - 1]);
+        }
+    }
+
+    private void change(Quality quality)
+    {
+        this.quality = quality;
+        settling = true;
+        listener.onQualityChanged(quality);
+    }
+}
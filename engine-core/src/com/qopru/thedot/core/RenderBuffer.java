@@ -0,0 +1,271 @@
+package com.qopru.thedot.core;
+
+import com.qopru.thedot.core.interfaces.RenderBackend;
+import java.util.Arrays;
+
+/**
+ * The drawing commands of a frame, recorded in primitive arrays and then
+ * executed on a backend.
+ *
+ * Each command has a depth: depths are drawn in order, commands in the same
+ * depth can be drawn in any order. Before executing, the commands are
+ * sorted by depth and then by paint, so that the backend changes paint as
+ * little as possible. Commands outside the clip, or the same as the one
+ * before, are skipped. What is executed is counted, so a frame can be
+ * measured without a device.
+ *
+ * Paints, sprites and layers share the ids, from 0 to IDS excluded: sprites
+ * and layers are the paint of their commands.
+ * Once the arrays are as large as the largest frame, nothing is allocated.
+ * Used by one thread at a time.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public final class RenderBuffer
+{
+    public static final int DEPTHS = 8;
+    public static final int IDS = 64;
+
+    private static final byte RECT = 1;
+    private static final byte OVAL = 2;
+    private static final byte SPRITE = 3;
+    private static final byte LAYER = 4;
+    // coords are x, y of the origin
+    private static final byte TEXT = 5;
+    private static final int COORDS = 4;
+
+    private byte[] ops = new byte[64];
+    // depth * IDS + id
+    private int[] keys = new int[64];
+    // sprite frame, or text offset
+    private int[] args = new int[64];
+    private int[] lengths = new int[64];
+    private float[] coords = new float[64 * COORDS];
+    private char[] text = new char[256];
+    private int count;
+    private int textCount;
+
+    // Indexes of the commands to execute, in order
+    private int[] order = new int[64];
+    private int orderCount;
+    private final int[] keyStarts = new int[DEPTHS * IDS + 1];
+
+    private int skipped;
+    private int paintChanges;
+
+    /**
+     * Forgets the commands, to record a new frame.
+     */
+    public void clear()
+    {
+        count = 0;
+        textCount = 0;
+        orderCount = 0;
+    }
+
+    public void rect(int depth, int paint, float left, float top, float right, float bottom)
+    {
+        add(RECT, depth, paint, 0, 0, left, top, right, bottom);
+    }
+
+    /**
+     * A filled oval inscribed in the rectangle.
+     */
+    public void oval(int depth, int paint, float left, float top, float right, float bottom)
+    {
+        add(OVAL, depth, paint, 0, 0, left, top, right, bottom);
+    }
+
+    /**
+     * A frame of an animated sprite, stretched on the rectangle.
+     */
+    public void sprite(int depth, int sprite, int frame, float left, float top, float right, float bottom)
+    {
+        add(SPRITE, depth, sprite, frame, 0, left, top, right, bottom);
+    }
+
+    /**
+     * A cached layer, of the size of the rectangle.
+     */
+    public void layer(int depth, int layer, float left, float top, float right, float bottom)
+    {
+        add(LAYER, depth, layer, 0, 0, left, top, right, bottom);
+    }
+
+    /**
+     * The characters are copied.
+     *
+     * @param x of the text origin, as the paint aligns it.
+     * @param y of the baseline.
+     */
+    public void text(int depth, int paint, char[] chars, int offset, int length, float x, float y)
+    {
+        if (textCount + length > text.length)
+            text = Arrays.copyOf(text, Math.max(text.length * 2, textCount + length));
+        System.arraycopy(chars, offset, text, textCount, length);
+        add(TEXT, depth, paint, textCount, length, x, y, x, y);
+        textCount += length;
+    }
+
+    private void add(byte op, int depth, int id, int arg, int length, float left, float top, float right, float bottom)
+    {
+        if (depth < 0 || depth >= DEPTHS)
+            throw new IllegalArgumentException("depth must be from 0 to " + (DEPTHS - 1));
+        if (id < 0 || id >= IDS)
+            throw new IllegalArgumentException("id must be from 0 to " + (IDS - 1));
+        if (count == ops.length)
+        {
+            int capacity = ops.length * 2;
+            ops = Arrays.copyOf(ops, capacity);
+            keys = Arrays.copyOf(keys, capacity);
+            args = Arrays.copyOf(args, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            coords = Arrays.copyOf(coords, capacity * COORDS);
+        }
+        ops[count] = op;
+        keys[count] = depth * IDS + id;
+        args[count] = arg;
+        lengths[count] = length;
+        int c = count * COORDS;
+        coords[c] = left;
+        coords[c + 1] = top;
+        coords[c + 2] = right;
+        coords[c + 3] = bottom;
+        count++;
+    }
+
+    /**
+     * Sorts the commands to execute, with nothing to skip outside.
+     */
+    public void prepare()
+    {
+        prepare(Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Sorts the commands to execute, by depth and paint keeping the order
+     * they were recorded in, and skips the ones not needed.
+     * Texts are never skipped for the clip, their size is not known.
+     *
+     * @param clipLeft
+     * @param clipTop
+     * @param clipRight
+     * @param clipBottom
+     */
+    public void prepare(float clipLeft, float clipTop, float clipRight, float clipBottom)
+    {
+        if (order.length < count)
+            order = new int[ops.length];
+
+        // Counting sort, stable
+        Arrays.fill(keyStarts, 0);
+        for (int i = 0; i < count; i++)
+            keyStarts[keys[i] + 1]++;
+        for (int k = 1; k < keyStarts.length; k++)
+            keyStarts[k] += keyStarts[k - 1];
+        for (int i = 0; i < count; i++)
+            order[keyStarts[keys[i]]++] = i;
+
+        orderCount = 0;
+        skipped = 0;
+        paintChanges = 0;
+        int previous = -1;
+        for (int j = 0; j < count; j++)
+        {
+            int i = order[j];
+            if (outside(i, clipLeft, clipTop, clipRight, clipBottom) || (previous >= 0 && same(previous, i)))
+            {
+                skipped++;
+                continue;
+            }
+            if (previous < 0 || keys[previous] % IDS != keys[i] % IDS)
+                paintChanges++;
+            order[orderCount++] = i;
+            previous = i;
+        }
+    }
+
+    private boolean outside(int i, float clipLeft, float clipTop, float clipRight, float clipBottom)
+    {
+        if (ops[i] == TEXT)
+            return false;
+        int c = i * COORDS;
+        return coords[c + 2] <= clipLeft || coords[c] >= clipRight
+            || coords[c + 3] <= clipTop || coords[c + 1] >= clipBottom;
+    }
+
+    private boolean same(int a, int b)
+    {
+        if (ops[a] != ops[b] || keys[a] != keys[b] || args[a] != args[b] || ops[a] == TEXT)
+            return false;
+        int ca = a * COORDS;
+        int cb = b * COORDS;
+        return coords[ca] == coords[cb] && coords[ca + 1] == coords[cb + 1]
+            && coords[ca + 2] == coords[cb + 2] && coords[ca + 3] == coords[cb + 3];
+    }
+
+    /**
+     * Executes the prepared commands.
+     *
+     * @param backend
+     */
+    public void execute(RenderBackend backend)
+    {
+        for (int j = 0; j < orderCount; j++)
+        {
+            int i = order[j];
+            int id = keys[i] % IDS;
+            int c = i * COORDS;
+            switch (ops[i])
+            {
+                case RECT:
+                    backend.rect(id, coords[c], coords[c + 1], coords[c + 2], coords[c + 3]);
+                    break;
+                case OVAL:
+                    backend.oval(id, coords[c], coords[c + 1], coords[c + 2], coords[c + 3]);
+                    break;
+                case SPRITE:
+                    backend.sprite(id, args[i], coords[c], coords[c + 1], coords[c + 2], coords[c + 3]);
+                    break;
+                case LAYER:
+                    backend.layer(id, coords[c], coords[c + 1], coords[c + 2], coords[c + 3]);
+                    break;
+                case TEXT:
+                    backend.text(id, text, args[i], lengths[i], coords[c], coords[c + 1]);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * @return commands recorded.
+     */
+    public int getCount()
+    {
+        return count;
+    }
+
+    /**
+     * @return commands the last prepare left to execute.
+     */
+    public int getExecuted()
+    {
+        return orderCount;
+    }
+
+    /**
+     * @return commands the last prepare skipped.
+     */
+    public int getSkipped()
+    {
+        return skipped;
+    }
+
+    /**
+     * @return times the paint changes, executing the prepared commands.
+     */
+    public int getPaintChanges()
+    {
+        return paintChanges;
+    }
+}
@@ -0,0 +1,205 @@
+package com.qopru.thedot.core;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Timestamped samples of a sensor, from the sensor thread to the game loop.
+ * One thread adds, one thread reads: no locks, and no allocations after
+ * construction.
+ * The buffer is circular: when the reader falls behind by more than the
+ * capacity (for example while the game is paused), the oldest samples are
+ * overwritten and skipped by the reader, so it always resumes on recent
+ * ones.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public final class SensorRing
+{
+    /**
+     * A sample, copied out of the buffer.
+     */
+    public static final class Sample
+    {
+        // Nanoseconds, as given by the sensor
+        public long timestamp;
+        public float x;
+        public float y;
+        public float z;
+    }
+
+    // Ints per slot: timestamp high and low bits, x, y, z
+    private static final int SLOT = 5;
+
+    private final int mask;
+    // Every access is volatile: the reader checks after copying a slot that
+    // it was not being overwritten meanwhile, and that needs the copy and
+    // the check to stay in order.
+    private final AtomicIntegerArray slots;
+    // Samples added since the start
+    private final AtomicLong written = new AtomicLong();
+    // Samples the writer overwrote before they were read
+    private final AtomicLong lost = new AtomicLong();
+
+    // Only used by the reader
+    private long read;
+    private final Sample sample = new Sample();
+
+    /**
+     * @param capacity a power of two.
+     */
+    public SensorRing(int capacity)
+    {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1)
+            throw new IllegalArgumentException("capacity must be a power of two, at least 2");
+        mask = capacity - 1;
+        slots = new AtomicIntegerArray(capacity * SLOT);
+    }
+
+    public int getCapacity()
+    {
+        return mask + 1;
+    }
+
+    /**
+     * Writer side.
+     *
+     * @param timestamp nanoseconds
+     * @param x
+     * @param y
+     * @param z
+     */
+    public void add(long timestamp, float x, float y, float z)
+    {
+        long w = written.get();
+        int i = (int) (w & mask) * SLOT;
+        slots.set(i, (int) (timestamp >>> 32));
+        slots.set(i + 1, (int) timestamp);
+        slots.set(i + 2, Float.floatToRawIntBits(x));
+        slots.set(i + 3, Float.floatToRawIntBits(y));
+        slots.set(i + 4, Float.floatToRawIntBits(z));
+        written.set(w + 1);
+    }
+
+    /**
+     * Reader side: the oldest sample not read yet.
+     *
+     * @param out where the sample is copied.
+     * @return false when there are no more samples.
+     */
+    public boolean next(Sample out)
+    {
+        return next(out, Long.MAX_VALUE);
+    }
+
+    /**
+     * Reader side: the oldest sample not read yet, if not newer than until.
+     * A newer sample is left for the next reads.
+     *
+     * @param out where the sample is copied.
+     * @param until nanoseconds
+     * @return false when there are no more samples up to until.
+     */
+    public boolean next(Sample out, long until)
+    {
+        return take(out, until, true);
+    }
+
+    /**
+     * Reader side: the oldest sample not read yet, left in the buffer.
+     *
+     * @param out where the sample is copied.
+     * @return false when there are no samples.
+     */
+    public boolean peek(Sample out)
+    {
+        return take(out, Long.MAX_VALUE, false);
+    }
+
+    private boolean take(Sample out, long until, boolean consume)
+    {
+        while (true)
+        {
+            long w = written.get();
+            if (read == w)
+                return false;
+            // Too far behind, these have been overwritten, and the next
+            // one is about to be
+            if (w - read > mask)
+            {
+                lost.addAndGet(w - read - mask);
+                read = w - mask;
+            }
+
+            long timestamp = timestampAt(read);
+            int i = (int) (read & mask) * SLOT;
+            float x = Float.intBitsToFloat(slots.get(i + 2));
+            float y = Float.intBitsToFloat(slots.get(i + 3));
+            float z = Float.intBitsToFloat(slots.get(i + 4));
+
+            // The writer may have started on this slot while it was copied
+            if (written.get() - read > mask)
+            {
+                lost.incrementAndGet();
+                read++;
+                continue;
+            }
+            if (timestamp > until)
+                return false;
+            out.timestamp = timestamp;
+            out.x = x;
+            out.y = y;
+            out.z = z;
+            if (consume)
+                read++;
+            return true;
+        }
+    }
+
+    /**
+     * Reader side: skips the samples older than from.
+     *
+     * @param from nanoseconds
+     */
+    public void skipUntil(long from)
+    {
+        while (next(sample, from - 1))
+        {
+        }
+    }
+
+    /**
+     * Reader side: skips all the samples not read yet.
+     */
+    public void skipAll()
+    {
+        while (next(sample))
+        {
+        }
+    }
+
+    /**
+     * Reader side.
+     *
+     * @return position of the oldest sample not read yet, counting all the
+     * samples added since the start.
+     */
+    public long getReadPosition()
+    {
+        return read;
+    }
+
+    private long timestampAt(long index)
+    {
+        int i = (int) (index & mask) * SLOT;
+        return ((long) slots.get(i) << 32) | (slots.get(i + 1) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @return samples overwritten before being read.
+     */
+    public long getLost()
+    {
+        return lost.get();
+    }
+}
@@ -0,0 +1,1129 @@
+package com.qopru.thedot.core;
+
+import com.qopru.thedot.core.interfaces.Haptics;
+import com.qopru.thedot.core.interfaces.InputSource;
+import com.qopru.thedot.core.math.Bounds;
+import com.qopru.thedot.core.math.ForceKernel;
+import com.qopru.thedot.core.math.Sweep;
+import com.qopru.thedot.core.math.Vec2;
+import com.qopru.thedot.core.objects.Enemy;
+import com.qopru.thedot.core.objects.Gate;
+import com.qopru.thedot.core.objects.GravityWell;
+import static java.lang.Math.abs;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * The game rules, platform independent.
+ * Everything is measured in game units, a virtual measurement that the
+ * platform later converts into pixels.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public class Simulation
+{
+    public enum Status {PLAY, PAUSE, COUNTDOWN}
+
+    public static final int COUNTDOWN_MS = 3000;
+
+    private static final float DOT_MASS = 0.005f;
+    private static final float DOT_BOUNCE = 0.5f;
+    // Bounces on the borders followed in a step: more would take a speed
+    // the dot never reaches, it's then only kept in the bounds.
+    private static final int MAX_BOUNCES = 4;
+    private static final int BOUNCE_HORIZONTAL = 1;
+    private static final int BOUNCE_VERTICAL = 2;
+    public static final float DOT_SIZE = 1f;
+    private static final float TRIGGERING_VIBRATION_BOUNCE_SPEED = 3f;
+    // Length of the animations in game time, milliseconds: the ten steps
+    // at 60Hz they were made with
+    public static final float ENDING_ANIMATION_MS = 10 * 1000f / 60;
+    public static final float DEATH_ANIMATION_MS = 10 * 1000f / 60;
+    // While ending, the dot halves its distance from the gate in this many
+    // milliseconds
+    private static final float ENDING_APPROACH_HALF_MS = 1000f / 60;
+    // Rounding of the step lengths summed up: an animation that lasts a
+    // whole number of steps ends on its last one
+    private static final float ANIMATION_END_SLACK_MS = 0.01f;
+
+    private static final float ENEMY_SPEED = 25f;
+    static final float GRAVITY_WELL_MAX = 15f;
+    static final float GRAVITY_WELL_MAXDISTANCE = 50f;
+
+    // Proximity with the gate to consider it 'exiting' (in units).
+    // Distance is center-to-center.
+    private static final float GATE_PROXIMITY = 3.5f;
+    // Number of milliseconds to remain in proximity in order to 'exit'
+    // 1/4 of a second
+    private static final int GATE_EXIT_TIME = 100;
+
+    private static final int DEFAULT_ENEMIES_PER_LEVEL = 5;
+    private static final int DEFAULT_WELLS_PER_LEVEL = 1;
+
+    // Distance between the points of the baked gravity field
+    static final float GRAVITY_FIELD_SPACING = 1f;
+
+    // Cells of the enemies grid: a bit more than the enemy plus the dot, so
+    // that a collision query touches at most 4 cells.
+    private static final float ENEMY_CELL_SIZE = 4f;
+
+    // Enemies per thread below which moving them in parallel is expected to
+    // cost more than it saves. Not measured: it's an estimate from costs
+    // measured on a single core with ParallelEnemiesBenchmark, where a
+    // parallel run should never win. Moving an enemy takes about 4.2ns, a parallel
+    // run costs about 6us more per thread besides the caller. With k
+    // threads the run saves 4.2ns * n * (1 - 1/k) and costs 6us * (k - 1),
+    // they would cross at n = 1400 * k. The same runs don't follow this
+    // model everywhere (at 10000 enemies 2 threads beat 1 on that single
+    // core), so the crossover has to be checked on a multi core device.
+    public static final int PARALLEL_THRESHOLD_PER_THREAD = 1400;
+
+    private final Bounds gameBounds;
+    private final InputSource input;
+    private final Haptics haptics;
+    // Source of the seeds of the levels, one after the other
+    private final Random random;
+
+    float countdown;
+
+    // Player position is intended in 'units', a virtual measurement for this game.
+    // Units are later converted into pixels, this is a logical value.
+    final Vec2 player = new Vec2();
+    // Player's velocity
+    final Vec2 playerV = new Vec2();
+    // Player position at the previous physics step, used to interpolate
+    // the rendering between two steps.
+    final Vec2 prevPlayer = new Vec2();
+    // Acceleration applied in the current step
+    private final Vec2 acceleration = new Vec2();
+    // Time of the current step, in nanoseconds
+    long stepTime;
+    // Newest sensor sample that moved the dot, nanoseconds
+    long inputTimestamp = InputSource.NO_SAMPLE;
+    // Game time the animations run on, nanoseconds: it goes at the speed
+    // of the time factor and stands still while paused.
+    long animationTime;
+    // Animation time at the previous physics step
+    long prevAnimationTime;
+
+    // Number of milliseconds of actual proximity with the gate
+    float gateProximityTime;
+    // Current level
+    int currentLevel;
+    // When this is true, the dot will be 'falling' inside the gate for the
+    // last remaining grames, then a new level is called.
+    boolean endingAnimation;
+    // Milliseconds of game time the ending animation has run for
+    float endingAnimationTime;
+    // When this is ture, the dot will be destroyed.
+    // This always has precedence to the engingAnimation
+    boolean deathAnimation;
+    // Milliseconds of game time the death animation has run for
+    float deathAnimationTime;
+
+    volatile float timeFactor = 1f;
+
+    // Math for the forces and the steering
+    volatile ForceKernel kernel = ForceKernel.EXACT;
+
+    // Moves the enemies in parallel, when there are enough of them
+    volatile WorkerPool workerPool;
+    volatile int parallelThreshold = 2 * PARALLEL_THRESHOLD_PER_THREAD;
+    // Distance each enemy moves in the current step, for the workers
+    float enemyStep;
+
+    int enemiesPerLevel = DEFAULT_ENEMIES_PER_LEVEL;
+    int wellsPerLevel = DEFAULT_WELLS_PER_LEVEL;
+
+    // Reads the force of the wells from a precomputed field
+    volatile boolean bakedGravity;
+
+    // Objects reused from a level to the next ones
+    final ObjectPool<Gate> gatePool = new ObjectPool<Gate>()
+    {
+        @Override
+        protected Gate create()
+        {
+            return new Gate(0, 0);
+        }
+    };
+    final ObjectPool<GravityWell> wellPool = new ObjectPool<GravityWell>()
+    {
+        @Override
+        protected GravityWell create()
+        {
+            return new GravityWell(0, 0, 0);
+        }
+    };
+    final ObjectPool<Enemy> enemyPool = new ObjectPool<Enemy>()
+    {
+        @Override
+        protected Enemy create()
+        {
+            return new Enemy(0, 0);
+        }
+    };
+    final ObjectPool<Level> levelPool = new ObjectPool<Level>()
+    {
+        @Override
+        protected Level create()
+        {
+            return new Level(gameBounds, gatePool, wellPool, enemyPool);
+        }
+    };
+
+    // Makes the next level while the current one is played, null to make
+    // it when needed
+    volatile Executor levelExecutor;
+    // Seed of the next level
+    long nextLevelSeed;
+    final LevelTask levelTask = new LevelTask();
+    // The level task was started, and its level not taken yet
+    boolean levelPending;
+
+    // The current level, and what it's made of
+    Level level;
+    Gate gate;
+    List<GravityWell> gravityWells = new ArrayList<GravityWell>();
+    List<Enemy> enemies = new ArrayList<Enemy>();
+
+    // Enemies by position, filled again at every step
+    final SpatialGrid enemyGrid;
+    // Largest enemy half size, to query the enemies grid
+    float enemyRadius;
+    // Objects that stay still for the whole level: the gravity wells by
+    // their index, then the gate.
+    SpatialGrid levelGrid;
+
+    boolean touchedBorderHorizontal;
+    boolean touchedBorderVertical;
+
+    // Path of the dot in the current step, split where it bounces on the
+    // borders. For each point: the time of the step, 0 to 1, the borders
+    // bounced on there, and the velocity from there on.
+    private final float[] pathX = new float[MAX_BOUNCES + 2];
+    private final float[] pathY = new float[MAX_BOUNCES + 2];
+    private final float[] pathTime = new float[MAX_BOUNCES + 2];
+    private final int[] pathBounce = new int[MAX_BOUNCES + 2];
+    private final float[] pathVX = new float[MAX_BOUNCES + 2];
+    private final float[] pathVY = new float[MAX_BOUNCES + 2];
+    private int pathPoints;
+
+    volatile Status status;
+
+    // Hands the state of each step over to rendering
+    final SnapshotExchange snapshots = new SnapshotExchange();
+
+    /**
+     * @param gameBounds the playing field, in units, centered in 0,0.
+     * @param input
+     * @param haptics
+     * @param random source of the seeds of the levels.
+     */
+    public Simulation(Bounds gameBounds, InputSource input, Haptics haptics, Random random)
+    {
+        if (gameBounds == null || input == null || haptics == null || random == null)
+            throw new IllegalArgumentException("all parameters must not be null");
+        this.gameBounds = gameBounds;
+        this.input = input;
+        this.haptics = haptics;
+        this.random = random;
+        enemyGrid = new SpatialGrid(gameBounds, ENEMY_CELL_SIZE);
+        nextLevelSeed = random.nextLong();
+    }
+
+    /**
+     * Starts from the first level, paused.
+     *
+     * @param time nanoseconds, to stamp the first snapshot.
+     */
+    public void start(long time)
+    {
+        currentLevel = 1;
+        loadLevel(currentLevel);
+        status = Status.PAUSE;
+        animationTime = 0;
+        prevAnimationTime = 0;
+        publishSnapshot(time, 0);
+    }
+
+    public void togglePause()
+    {
+        if (status == null)
+            return;
+        switch (status)
+        {
+            case PAUSE:
+                if (countdown > 0)
+                    status = Status.COUNTDOWN;
+                else
+                    status = Status.PLAY;
+                break;
+            case PLAY:
+            case COUNTDOWN:
+                    status = Status.PAUSE;
+                break;
+        }
+    }
+
+    public Status getStatus()
+    {
+        return status;
+    }
+
+    /**
+     * Skips pause and countdown, the game runs from the next step.
+     */
+    public void play()
+    {
+        countdown = 0;
+        status = Status.PLAY;
+    }
+
+    /**
+     * The game can slow down or speed up based on this.
+     *
+     * @param timeFactor 1 for normal speed.
+     */
+    public void setTimeFactor(float timeFactor)
+    {
+        this.timeFactor = timeFactor;
+    }
+
+    /**
+     * Applies from the next level.
+     *
+     * @param enemiesPerLevel
+     */
+    public void setEnemiesPerLevel(int enemiesPerLevel)
+    {
+        if (enemiesPerLevel < 0)
+            throw new IllegalArgumentException("enemies per level must not be negative");
+        this.enemiesPerLevel = enemiesPerLevel;
+    }
+
+    /**
+     * Uses a faster but approximate square root for the forces and the
+     * steering of the enemies.
+     *
+     * @param approximate
+     */
+    public void setApproximateMath(boolean approximate)
+    {
+        kernel = approximate ? ForceKernel.APPROXIMATE : ForceKernel.EXACT;
+    }
+
+    /**
+     * Enemies are moved in parallel by the pool when they are at least as many
+     * as the threshold. Each enemy only depends on the dot and itself, so the
+     * result is the same as moving them one by one.
+     *
+     * @param workerPool null to always move them on the calling thread.
+     * @param parallelThreshold
+     */
+    public void setWorkerPool(WorkerPool workerPool, int parallelThreshold)
+    {
+        if (parallelThreshold < 1)
+            throw new IllegalArgumentException("parallel threshold must be at least 1");
+        this.parallelThreshold = parallelThreshold;
+        this.workerPool = workerPool;
+    }
+
+    /**
+     * Moves the enemies in parallel when they are enough to gain from all
+     * the threads of the pool.
+     *
+     * @param workerPool null to always move them on the calling thread.
+     */
+    public void setWorkerPool(WorkerPool workerPool)
+    {
+        setWorkerPool(workerPool, workerPool == null ?
+            PARALLEL_THRESHOLD_PER_THREAD :
+            PARALLEL_THRESHOLD_PER_THREAD * workerPool.getParallelism());
+    }
+
+    /**
+     * Applies from the next level. The first well always pulls, the others
+     * pull or push with a random power.
+     *
+     * @param wellsPerLevel
+     */
+    public void setWellsPerLevel(int wellsPerLevel)
+    {
+        if (wellsPerLevel < 0)
+            throw new IllegalArgumentException("wells per level must not be negative");
+        this.wellsPerLevel = wellsPerLevel;
+    }
+
+    /**
+     * Instead of summing the force of every well at every step, computes
+     * their combined force once per level on a grid and interpolates it.
+     * The cost does not grow with the number of wells, but the force is
+     * less precise close to them.
+     * The field is computed when a level is made, in the background if
+     * there is a level executor, so it applies to the levels made from
+     * then on, with the kernel of that moment.
+     *
+     * @param bakedGravity
+     */
+    public void setBakedGravity(boolean bakedGravity)
+    {
+        this.bakedGravity = bakedGravity;
+    }
+
+    /**
+     * Makes each next level in the background while the current one is
+     * played, so that changing level is only taking it over.
+     * A level is the same whether made in the background or not. If the
+     * number of enemies or wells changed meanwhile, the next level is made
+     * again when needed.
+     *
+     * @param levelExecutor null to make each level when needed.
+     */
+    public void setLevelExecutor(Executor levelExecutor)
+    {
+        this.levelExecutor = levelExecutor;
+    }
+
+    public ObjectPool<Gate> getGatePool()
+    {
+        return gatePool;
+    }
+
+    public ObjectPool<GravityWell> getWellPool()
+    {
+        return wellPool;
+    }
+
+    public ObjectPool<Enemy> getEnemyPool()
+    {
+        return enemyPool;
+    }
+
+    public int getCurrentLevel()
+    {
+        return currentLevel;
+    }
+
+    public Bounds getGameBounds()
+    {
+        return gameBounds;
+    }
+
+    public SnapshotExchange getSnapshots()
+    {
+        return snapshots;
+    }
+
+    void loadLevel(int num)
+    {
+        status = Status.COUNTDOWN;
+        countdown = COUNTDOWN_MS;
+
+        endingAnimation = false;
+        touchedBorderHorizontal = false;
+        touchedBorderVertical = false;
+        gateProximityTime = 0;
+        endingAnimationTime = 0;
+        player.set(0, 0);
+        prevPlayer.set(0, 0);
+        playerV.set(0, 0);
+
+        Level previous = level;
+        level = takeNextLevel();
+        gate = level.gate;
+        gravityWells = level.gravityWells;
+        enemies = level.enemies;
+        levelGrid = level.grid;
+        indexEnemies();
+        if (previous != null)
+            recycle(previous);
+
+        prepareNextLevel();
+    }
+
+    /**
+     * @return the next level, the one made in the background if there is
+     * one and it's still good.
+     */
+    private Level takeNextLevel()
+    {
+        Level next = null;
+        if (levelPending)
+        {
+            levelPending = false;
+            next = levelTask.await();
+            if (!next.isMadeWith(enemiesPerLevel, wellsPerLevel))
+            {
+                recycle(next);
+                next = null;
+            }
+        }
+        if (next == null)
+            next = makeLevel(nextLevelSeed, enemiesPerLevel, wellsPerLevel, bakedGravity ? kernel : null);
+        return next;
+    }
+
+    /**
+     * Draws the seed of the next level, and starts making it if there is
+     * an executor for it.
+     */
+    private void prepareNextLevel()
+    {
+        nextLevelSeed = random.nextLong();
+        Executor executor = levelExecutor;
+        if (executor == null)
+            return;
+
+        levelTask.prepare(nextLevelSeed, enemiesPerLevel, wellsPerLevel, bakedGravity ? kernel : null);
+        try
+        {
+            executor.execute(levelTask);
+            levelPending = true;
+        }
+        catch (RejectedExecutionException e)
+        {
+            // Made when needed
+        }
+    }
+
+    private Level makeLevel(long seed, int enemiesCount, int wellsCount, ForceKernel bakeWith)
+    {
+        Level made = levelPool.acquire();
+        made.make(seed, enemiesCount, wellsCount, bakeWith);
+        return made;
+    }
+
+    private void recycle(Level old)
+    {
+        old.clear();
+        levelPool.release(old);
+    }
+
+    /**
+     * Makes the next level on the executor. The same task is used for all
+     * the levels: it's started again only once its level is taken.
+     */
+    final class LevelTask implements Runnable
+    {
+        private long seed;
+        private int enemiesCount;
+        private int wellsCount;
+        private ForceKernel bakeWith;
+
+        private boolean done;
+        private Level made;
+        private Throwable failure;
+
+        synchronized void prepare(long seed, int enemiesCount, int wellsCount, ForceKernel bakeWith)
+        {
+            this.seed = seed;
+            this.enemiesCount = enemiesCount;
+            this.wellsCount = wellsCount;
+            this.bakeWith = bakeWith;
+            done = false;
+            made = null;
+            failure = null;
+        }
+
+        @Override
+        public void run()
+        {
+            long s;
+            int e;
+            int w;
+            ForceKernel k;
+            synchronized (this)
+            {
+                s = seed;
+                e = enemiesCount;
+                w = wellsCount;
+                k = bakeWith;
+            }
+
+            Level level = null;
+            Throwable error = null;
+            try
+            {
+                level = makeLevel(s, e, w, k);
+            }
+            catch (Throwable t)
+            {
+                error = t;
+            }
+
+            synchronized (this)
+            {
+                made = level;
+                failure = error;
+                done = true;
+                notifyAll();
+            }
+        }
+
+        /**
+         * Waits for the level to be made.
+         *
+         * @return the level.
+         */
+        synchronized Level await()
+        {
+            boolean interrupted = false;
+            while (!done)
+            {
+                try
+                {
+                    wait();
+                }
+                catch (InterruptedException ex)
+                {
+                    // The level is needed, wait for it anyway
+                    interrupted = true;
+                }
+            }
+            if (interrupted)
+                Thread.currentThread().interrupt();
+            if (failure != null)
+                throw new IllegalStateException("cannot make the level", failure);
+            return made;
+        }
+    }
+
+    /**
+     * Fills the grid of the enemies with their current positions.
+     */
+    void indexEnemies()
+    {
+        enemyGrid.clear();
+        float radius = 0;
+        for (int i = 0; i < enemies.size(); i++)
+        {
+            Enemy enemy = enemies.get(i);
+            enemyGrid.add(i, enemy.getX(), enemy.getY());
+            float size = enemy.getW() > enemy.getH() ? enemy.getW() : enemy.getH();
+            if (size / 2 > radius)
+                radius = size / 2;
+        }
+        enemyRadius = radius;
+    }
+
+    /**
+     * Runs a physics step.
+     *
+     * @param stepTime the time this step corresponds to, in nanoseconds.
+     * @param deltaT how much the step is "worth" in milliseconds.
+     */
+    public void update(long stepTime, float deltaT)
+    {
+        if (status == null)
+            return;
+        this.stepTime = stepTime;
+        storePositions();
+        // The clock of all the animations, advanced once per step
+        prevAnimationTime = animationTime;
+        if (status != Status.PAUSE)
+            animationTime += (long) (deltaT * timeFactor * 1000000.0);
+        switch (status)
+        {
+            case PLAY:
+                updateGame(deltaT);
+                break;
+            case COUNTDOWN:
+                countdown -= deltaT;
+                if (countdown <= 0)
+                    status = Status.PLAY;
+                break;
+        }
+        publishSnapshot(stepTime, deltaT);
+    }
+
+    /**
+     * Keeps the current positions as the previous state for interpolation.
+     */
+    private void storePositions()
+    {
+        prevPlayer.set(player);
+        for (int i = 0; i < enemies.size(); i++)
+            enemies.get(i).storePosition();
+    }
+
+    /**
+     * Copies the state needed for rendering and makes it available to the
+     * renderer, which may be running on another thread.
+     *
+     * @param stepTime nanoseconds
+     * @param deltaT milliseconds
+     */
+    private void publishSnapshot(long stepTime, float deltaT)
+    {
+        WorldSnapshot s = snapshots.getWriteBuffer();
+        s.stepTime = stepTime;
+        s.stepNanos = (long) (deltaT * 1000000f);
+        s.status = status;
+        s.countdown = countdown;
+        s.inputTimestamp = inputTimestamp;
+        s.prevAnimationTime = prevAnimationTime;
+        s.animationTime = animationTime;
+
+        s.prevPlayerX = prevPlayer.x;
+        s.prevPlayerY = prevPlayer.y;
+        s.playerX = player.x;
+        s.playerY = player.y;
+        s.deathAnimation = deathAnimation;
+        s.deathAnimationProgress = progress(deathAnimationTime, DEATH_ANIMATION_MS);
+        s.endingAnimation = endingAnimation;
+        s.endingAnimationProgress = progress(endingAnimationTime, ENDING_ANIMATION_MS);
+
+        s.hasGate = gate != null;
+        if (gate != null)
+        {
+            s.gateX = gate.getX();
+            s.gateY = gate.getY();
+        }
+
+        s.setWellCount(gravityWells.size());
+        for (int i = 0; i < s.wellCount; i++)
+        {
+            GravityWell well = gravityWells.get(i);
+            s.wellX[i] = well.getX();
+            s.wellY[i] = well.getY();
+        }
+
+        s.setEnemyCount(enemies.size());
+        for (int i = 0; i < s.enemyCount; i++)
+        {
+            Enemy enemy = enemies.get(i);
+            s.prevEnemyX[i] = enemy.getPrevX();
+            s.prevEnemyY[i] = enemy.getPrevY();
+            s.enemyX[i] = enemy.getX();
+            s.enemyY[i] = enemy.getY();
+        }
+
+        snapshots.publish();
+    }
+
+    /**
+     * @return from 0 at the start of an animation to 1 at its end.
+     */
+    private static float progress(float time, float duration)
+    {
+        return time >= duration ? 1f : time / duration;
+    }
+
+    /**
+     * Runs on game loop
+     *
+     * @param deltaT how much an update is "worth" in milliseconds. This is
+     * essential to determine how much velocity to apply having an acceleration.
+     * Also to know how much time is passed for things like gate proximity.
+     */
+    void updateGame(float deltaT)
+    {
+        // Must be a valid gate (exit) in game
+        if (gate == null)
+            return;
+
+        // Modify the deltaT for the time factor: game can slow down or
+        // speed up based on this.
+        deltaT *= timeFactor;
+        float seconds = deltaT / 1000f;
+
+        inputTimestamp = input.read(stepTime, acceleration);
+
+        // While animating the player death, it continues going with the last
+        // direction
+        if (deathAnimation)
+        {
+            deathAnimationTime += deltaT;
+            player.addScaled(playerV, seconds);
+            if (deathAnimationTime >= DEATH_ANIMATION_MS - ANIMATION_END_SLACK_MS)
+                onDeath();
+            return;
+        }
+
+        // While animating these last frames, move slightly the dot towards the
+        // Gate, and reduce the dot size.
+        if (endingAnimation)
+        {
+            endingAnimationTime += deltaT;
+            // The same approach whatever the length of the steps. StrictMath
+            // gives the same result everywhere, for the replays.
+            float approach = 1f - (float) StrictMath.pow(0.5, deltaT / ENDING_APPROACH_HALF_MS);
+            player.add((gate.getX() - player.x) * approach, (gate.getY() - player.y) * approach);
+            if (endingAnimationTime >= ENDING_ANIMATION_MS - ANIMATION_END_SLACK_MS)
+                onExitLevel();
+            return;
+        }
+
+        applyGravityWells(acceleration);
+
+        // Apply acceleration to velocity
+        // Acceleration is in m/s^2 so the result in velocity will be m/s.
+        // In our case we have a virtual 'unit' that is not necessarily a meter.
+        // This means some correction will apply later on.
+        // Also mass is taken into account when accelerating.
+        playerV.addScaled(acceleration, seconds / DOT_MASS);
+
+        moveDot(seconds);
+
+        moveEnemies(seconds);
+
+        // Collisions are checked along the whole path of the step, part by
+        // part between the bounces, so that nothing is skipped however long
+        // the step is.
+        handleCollisions(deltaT);
+    }
+
+    /**
+     * Moves the dot for the step. When it reaches a border it bounces
+     * there, and only the rest of the step goes with the reflected
+     * velocity.
+     *
+     * @param seconds
+     */
+    private void moveDot(float seconds)
+    {
+        float time = 0;
+        int points = 0;
+        int bounce = 0;
+        while (true)
+        {
+            pathX[points] = player.x;
+            pathY[points] = player.y;
+            pathTime[points] = time;
+            pathBounce[points] = bounce;
+            pathVX[points] = playerV.x;
+            pathVY[points] = playerV.y;
+            points++;
+            if (time == 1)
+                break;
+
+            // How much the dot moves in a whole step at this velocity
+            float dx = playerV.x * seconds;
+            float dy = playerV.y * seconds;
+            float part = 1 - time;
+            float hitX = Sweep.MISS;
+            float hitY = Sweep.MISS;
+            if (points <= MAX_BOUNCES)
+            {
+                hitX = borderTime(player.x, dx, gameBounds.left, gameBounds.right);
+                hitY = borderTime(player.y, dy, gameBounds.top, gameBounds.bottom);
+            }
+            if (hitX != Sweep.MISS && hitX <= part)
+                part = hitX;
+            if (hitY != Sweep.MISS && hitY <= part)
+                part = hitY;
+
+            bounce = 0;
+            player.add(dx * part, dy * part);
+            if (hitX != Sweep.MISS && hitX <= part)
+            {
+                player.x = dx < 0 ? gameBounds.left : gameBounds.right;
+                playerV.x = -playerV.x * DOT_BOUNCE;
+                bounce |= BOUNCE_HORIZONTAL;
+            }
+            if (hitY != Sweep.MISS && hitY <= part)
+            {
+                player.y = dy < 0 ? gameBounds.top : gameBounds.bottom;
+                playerV.y = -playerV.y * DOT_BOUNCE;
+                bounce |= BOUNCE_VERTICAL;
+            }
+            time = bounce == 0 ? 1 : time + part;
+        }
+        // Past the bounces followed
+        player.x = player.x < gameBounds.left ? gameBounds.left : (player.x > gameBounds.right ? gameBounds.right : player.x);
+        player.y = player.y < gameBounds.top ? gameBounds.top : (player.y > gameBounds.bottom ? gameBounds.bottom : player.y);
+        pathX[points - 1] = player.x;
+        pathY[points - 1] = player.y;
+        pathPoints = points;
+    }
+
+    /**
+     * @param position on an axis.
+     * @param move how much the position changes in a whole step.
+     * @param min
+     * @param max
+     * @return the part of the step after which the position reaches min or
+     * max, {@link Sweep#MISS} if it doesn't move.
+     */
+    private static float borderTime(float position, float move, float min, float max)
+    {
+        if (move < 0)
+            return position <= min ? 0 : (min - position) / move;
+        if (move > 0)
+            return position >= max ? 0 : (max - position) / move;
+        return Sweep.MISS;
+    }
+
+    /**
+     * Sweeps the enemies and the gate along each part of the path of the
+     * step, in order, and bounces on the borders between the parts. The
+     * dot stops at the first enemy it touches.
+     *
+     * @param deltaT length of the step, milliseconds.
+     */
+    void handleCollisions(float deltaT)
+    {
+        boolean horizontal = false;
+        boolean vertical = false;
+        for (int part = 0; part < pathPoints - 1; part++)
+        {
+            if (handleEnemyCollision(part))
+                return;
+            handleGateProximity(part, deltaT);
+
+            // The onBorderCollision is only called when first touching the
+            // border, not while "walking" along it.
+            int bounce = pathBounce[part + 1];
+            if ((bounce & BOUNCE_HORIZONTAL) != 0)
+            {
+                horizontal = true;
+                if (!touchedBorderHorizontal)
+                {
+                    onBorderCollision(pathVX[part + 1]);
+                    touchedBorderHorizontal = true;
+                }
+            }
+            if ((bounce & BOUNCE_VERTICAL) != 0)
+            {
+                vertical = true;
+                if (!touchedBorderVertical)
+                {
+                    onBorderCollision(pathVY[part + 1]);
+                    touchedBorderVertical = true;
+                }
+            }
+        }
+        if (!horizontal)
+            touchedBorderHorizontal = false;
+        if (!vertical)
+            touchedBorderVertical = false;
+    }
+
+    /**
+     * Calculate if present, the proximity to the gravity wells and their
+     * direction to apply the gravity effect.
+     *
+     * @param acceleration where the effect is added.
+     */
+    void applyGravityWells(Vec2 acceleration)
+    {
+        // Baked where the level was made, never here: a level made before
+        // baking was asked for is summed until the next one
+        if (bakedGravity && level.gravityBaked)
+        {
+            level.gravityField.sample(player.x, player.y, acceleration);
+            return;
+        }
+        ForceKernel k = kernel;
+        int found = levelGrid.query(player.x, player.y, GRAVITY_WELL_MAXDISTANCE);
+        for (int n = 0; n < found; n++)
+        {
+            int i = levelGrid.getResult(n);
+            // The gate
+            if (i >= gravityWells.size())
+                continue;
+            GravityWell well = gravityWells.get(i);
+            // Power decreases with distance: power / (distance + 1)
+            k.addAttraction(acceleration,
+                well.getX() - player.x, well.getY() - player.y,
+                well.getPower(), GRAVITY_WELL_MAXDISTANCE);
+        }
+    }
+
+    void moveEnemies(float seconds)
+    {
+        enemyStep = ENEMY_SPEED * seconds;
+        WorkerPool pool = workerPool;
+        if (pool != null && enemies.size() >= parallelThreshold)
+            pool.run(enemyMover, enemies.size());
+        else
+            moveEnemies(0, enemies.size());
+        indexEnemies();
+    }
+
+    // Moves a range of enemies, on the worker threads
+    private final WorkerPool.RangeTask enemyMover = new WorkerPool.RangeTask()
+    {
+        @Override
+        public void run(int from, int to)
+        {
+            moveEnemies(from, to);
+        }
+    };
+
+    /**
+     * Moves the enemies from..to towards the dot, by enemyStep.
+     *
+     * @param from inclusive
+     * @param to exclusive
+     */
+    private void moveEnemies(int from, int to)
+    {
+        ForceKernel k = kernel;
+        float step = enemyStep;
+        for (int i = from; i < to; i++)
+        {
+            Enemy enemy = enemies.get(i);
+            float x = enemy.getX();
+            float y = enemy.getY();
+            float deltaX = player.x - x;
+            float deltaY = player.y - y;
+            // Move using a constant speed
+            float scale = k.scaleTo(deltaX, deltaY, step);
+            enemy.setX(x + deltaX * scale);
+            enemy.setY(y + deltaY * scale);
+        }
+    }
+
+    /**
+     * Time spent in proximity of the gate along a part of the path.
+     *
+     * @param part of the path, from a bounce to the next.
+     * @param deltaT length of the step, milliseconds.
+     */
+    private void handleGateProximity(int part, float deltaT)
+    {
+        if (gate == null)
+            return;
+
+        float x0 = pathX[part];
+        float y0 = pathY[part];
+        float x1 = pathX[part + 1];
+        float y1 = pathY[part + 1];
+        float enter = Sweep.MISS;
+        float leave = Sweep.MISS;
+        if (gateInReach(x0, y0, x1, y1))
+        {
+            float x = gate.getX();
+            float y = gate.getY();
+            enter = Sweep.enter(x0 - x, y0 - y, x1 - x, y1 - y, GATE_PROXIMITY);
+            leave = Sweep.leave(x0 - x, y0 - y, x1 - x, y1 - y, GATE_PROXIMITY);
+        }
+        if (enter == Sweep.MISS)
+        {
+            gateProximityTime = 0;
+            return;
+        }
+
+        // Only the time actually spent in proximity during the part counts
+        if (enter > 0)
+            gateProximityTime = 0;
+        gateProximityTime += (leave - enter) * (pathTime[part + 1] - pathTime[part]) * deltaT;
+        if (gateProximityTime >= GATE_EXIT_TIME)
+            endingAnimation = true;
+        else if (leave < 1)
+            gateProximityTime = 0;
+    }
+
+    /**
+     * @return if the gate may be in proximity of the segment x0, y0 to
+     * x1, y1.
+     */
+    private boolean gateInReach(float x0, float y0, float x1, float y1)
+    {
+        int found = levelGrid.query((x0 + x1) / 2, (y0 + y1) / 2,
+            length(x1 - x0, y1 - y0) / 2 + GATE_PROXIMITY);
+        for (int n = 0; n < found; n++)
+        {
+            if (levelGrid.getResult(n) == gravityWells.size())
+                return true;
+        }
+        return false;
+    }
+
+    private static float length(float x, float y)
+    {
+        return (float) Math.sqrt(x * x + y * y);
+    }
+
+    /**
+     * The dot collides with the first enemy it touches along a part of its
+     * path, both moving during the step, and stops there.
+     *
+     * @param part of the path, from a bounce to the next.
+     * @return if the dot hit an enemy.
+     */
+    boolean handleEnemyCollision(int part)
+    {
+        float x0 = pathX[part];
+        float y0 = pathY[part];
+        float x1 = pathX[part + 1];
+        float y1 = pathY[part + 1];
+        float t0 = pathTime[part];
+        float t1 = pathTime[part + 1];
+        float moveX = x1 - x0;
+        float moveY = y1 - y0;
+        // Everything that can be touched: enemies move at most by enemyStep
+        float reach = length(moveX, moveY) / 2 + enemyStep + DOT_SIZE/2 + enemyRadius;
+        int found = enemyGrid.query(x0 + moveX / 2, y0 + moveY / 2, reach);
+        Enemy hit = null;
+        float hitTime = Sweep.MISS;
+        for (int n = 0; n < found; n++)
+        {
+            Enemy enemy = enemies.get(enemyGrid.getResult(n));
+            float targetDist = DOT_SIZE/2 + (enemy.getW() > enemy.getH() ? enemy.getW() : enemy.getH())/2;
+            // Where the enemy is at the start and at the end of the part
+            float prevX = enemy.getPrevX();
+            float prevY = enemy.getPrevY();
+            float enemyX = enemy.getX() - prevX;
+            float enemyY = enemy.getY() - prevY;
+            // Path of the dot relative to the enemy
+            float t = Sweep.enter(
+                x0 - (prevX + enemyX * t0), y0 - (prevY + enemyY * t0),
+                x1 - (prevX + enemyX * t1), y1 - (prevY + enemyY * t1),
+                targetDist);
+            if (t != Sweep.MISS && (hit == null || t < hitTime))
+            {
+                hit = enemy;
+                hitTime = t;
+            }
+        }
+        if (hit == null)
+            return false;
+        // It dies going the way it went along this part
+        player.set(x0 + moveX * hitTime, y0 + moveY * hitTime);
+        playerV.set(pathVX[part], pathVY[part]);
+        onEnemyCollision(hit);
+        return true;
+    }
+
+    private void onBorderCollision(float v)
+    {
+        // Only vibrate when higher than a certain amount
+        if (abs(v) > TRIGGERING_VIBRATION_BOUNCE_SPEED)
+            haptics.vibrate(40);
+    }
+
+    private void onEnemyCollision(Enemy enemy)
+    {
+        haptics.vibrate(40);
+        deathAnimation = true;
+        deathAnimationTime = 0;
+    }
+
+    /**
+     * This happens when the player dies.
+     */
+    private void onDeath()
+    {
+        haptics.vibrate(1000);
+        deathAnimation = false;
+        currentLevel++;
+        loadLevel(currentLevel);
+        // TODO
+//        status = Status.PAUSE;
+    }
+
+    /**
+     * This happens when the level has been finished by exiting the 'gate'.
+     */
+    private void onExitLevel()
+    {
+        currentLevel++;
+        loadLevel(currentLevel);
+    }
+}
@@ -0,0 +1,64 @@
+package com.qopru.thedot.core;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock free triple buffer of world snapshots, handing them from the single
+ * updating thread to the single rendering thread.
+ * The writer always has a buffer of its own to fill, the reader always
+ * finds the latest complete one: neither ever waits for the other.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public class SnapshotExchange
+{
+    // Latest published buffer, or the one the reader just gave back
+    private final AtomicReference<WorldSnapshot> pending;
+    // Owned by the writer
+    private WorldSnapshot writing;
+    // Owned by the reader
+    private WorldSnapshot reading;
+    private long sequence;
+
+    SnapshotExchange()
+    {
+        pending = new AtomicReference<WorldSnapshot>(new WorldSnapshot());
+        writing = new WorldSnapshot();
+        reading = new WorldSnapshot();
+    }
+
+    /**
+     * Writer side.
+     *
+     * @return the buffer to fill before publishing.
+     */
+    WorldSnapshot getWriteBuffer()
+    {
+        return writing;
+    }
+
+    /**
+     * Writer side.
+     * Makes the filled buffer the latest one and takes back another to write.
+     */
+    void publish()
+    {
+        writing.sequence = ++sequence;
+        writing = pending.getAndSet(writing);
+    }
+
+    /**
+     * Reader side.
+     *
+     * @return the most recent published snapshot. It stays valid until the
+     * next call.
+     */
+    public WorldSnapshot acquire()
+    {
+        // Only swap when there's something newer: what's in pending may just
+        // be the buffer given back at the previous call.
+        if (pending.get().sequence > reading.sequence)
+            reading = pending.getAndSet(reading);
+        return reading;
+    }
+}
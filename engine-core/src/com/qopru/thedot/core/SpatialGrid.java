@@ -0,0 +1,138 @@
+package com.qopru.thedot.core;
+
+import com.qopru.thedot.core.math.Bounds;
+import java.util.Arrays;
+
+/**
+ * Uniform grid over the game bounds, to find the objects near a point
+ * without scanning all of them.
+ * Objects are stored by their index (in their own list) in the cell
+ * containing their center; those outside the bounds go to the nearest
+ * border cell. Cells are linked lists kept in arrays, so that filling the
+ * grid again at every step does not allocate. Queries don't either: the
+ * results have room for all the objects.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public final class SpatialGrid
+{
+    private final float left;
+    private final float top;
+    private final float cellSize;
+    private final int columns;
+    private final int rows;
+
+    // First object of each cell, -1 if empty
+    private final int[] head;
+    // Next object in the same cell, -1 at the end
+    private int[] next = new int[16];
+    private int size;
+
+    // Result of the last query, as long as next
+    private int[] results = new int[16];
+    private int resultCount;
+
+    /**
+     * @param bounds area covered, in units.
+     * @param cellSize in units. Best when about the size of the queries.
+     */
+    public SpatialGrid(Bounds bounds, float cellSize)
+    {
+        if (bounds == null)
+            throw new IllegalArgumentException("bounds must not be null");
+        if (!(cellSize > 0))
+            throw new IllegalArgumentException("cell size must be > 0");
+        this.left = bounds.left;
+        this.top = bounds.top;
+        this.cellSize = cellSize;
+        columns = Math.max(1, (int) Math.ceil(bounds.width() / cellSize));
+        rows = Math.max(1, (int) Math.ceil(bounds.height() / cellSize));
+        head = new int[columns * rows];
+        clear();
+    }
+
+    /**
+     * Removes all objects.
+     */
+    public void clear()
+    {
+        Arrays.fill(head, -1);
+        size = 0;
+    }
+
+    /**
+     * Adds an object. Objects must be added in order of index: 0, 1, 2...
+     *
+     * @param index of the object in its own list.
+     * @param x center
+     * @param y center
+     */
+    public void add(int index, float x, float y)
+    {
+        if (index != size)
+            throw new IllegalArgumentException("expected index " + size + ", got " + index);
+        if (size == next.length)
+        {
+            next = Arrays.copyOf(next, size * 2);
+            results = new int[next.length];
+        }
+        int cell = row(y) * columns + column(x);
+        next[index] = head[cell];
+        head[cell] = index;
+        size++;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Finds the objects whose cell is touched by the square of side 2*radius
+     * centered in x, y. The result may include objects farther than radius:
+     * the caller still checks the actual distance.
+     *
+     * @param x
+     * @param y
+     * @param radius
+     * @return number of objects found, read them with {@link #getResult}.
+     */
+    public int query(float x, float y, float radius)
+    {
+        resultCount = 0;
+        int c0 = column(x - radius);
+        int c1 = column(x + radius);
+        int r0 = row(y - radius);
+        int r1 = row(y + radius);
+        for (int r = r0; r <= r1; r++)
+        {
+            for (int c = c0; c <= c1; c++)
+            {
+                for (int i = head[r * columns + c]; i != -1; i = next[i])
+                    results[resultCount++] = i;
+            }
+        }
+        return resultCount;
+    }
+
+    /**
+     * @param i from 0 to the count returned by the last query.
+     * @return index of the object.
+     */
+    public int getResult(int i)
+    {
+        return results[i];
+    }
+
+    private int column(float x)
+    {
+        int c = (int) ((x - left) / cellSize);
+        return c < 0 ? 0 : (c >= columns ? columns - 1 : c);
+    }
+
+    private int row(float y)
+    {
+        int r = (int) ((y - top) / cellSize);
+        return r < 0 ? 0 : (r >= rows ? rows - 1 : r);
+    }
+}
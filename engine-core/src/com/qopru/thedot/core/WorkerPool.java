@@ -0,0 +1,202 @@
+package com.qopru.thedot.core;
+
+/**
+ * Fixed set of threads running a task over a range of indexes, split in
+ * one partition per thread. The calling thread runs a partition too, and
+ * returns when all of them are done.
+ * Threads are kept between runs and nothing is allocated per run.
+ * One run at a time: meant to be used by the game loop only.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public final class WorkerPool
+{
+    /**
+     * Work over a range of indexes, must be independent from the other
+     * ranges.
+     */
+    public interface RangeTask
+    {
+        /**
+         * @param from inclusive
+         * @param to exclusive
+         */
+        public void run(int from, int to);
+    }
+
+    private final Worker[] workers;
+    private final int parallelism;
+
+    private final Object lock = new Object();
+    // Increased at every run, workers wait for it to change
+    private int generation;
+    private boolean shutdown;
+    private RangeTask task;
+    private int count;
+    // Workers still running the current generation
+    private int pending;
+    private Throwable failure;
+
+    /**
+     * @param parallelism total partitions, including the calling thread.
+     */
+    public WorkerPool(int parallelism)
+    {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        this.parallelism = parallelism;
+        workers = new Worker[parallelism - 1];
+        for (int i = 0; i < workers.length; i++)
+        {
+            workers[i] = new Worker(i + 1);
+            workers[i].start();
+        }
+    }
+
+    public int getParallelism()
+    {
+        return parallelism;
+    }
+
+    /**
+     * Runs the task over 0..count, split among the threads.
+     *
+     * @param task
+     * @param count
+     */
+    public void run(RangeTask task, int count)
+    {
+        if (task == null)
+            throw new IllegalArgumentException("task must not be null");
+        synchronized (lock)
+        {
+            if (shutdown)
+                throw new IllegalStateException("pool is shut down");
+            this.task = task;
+            this.count = count;
+            failure = null;
+            pending = workers.length;
+            generation++;
+            lock.notifyAll();
+        }
+
+        Throwable callerFailure = null;
+        try
+        {
+            runPartition(task, count, 0);
+        }
+        catch (Throwable t)
+        {
+            callerFailure = t;
+        }
+
+        Throwable workerFailure;
+        synchronized (lock)
+        {
+            boolean interrupted = false;
+            while (pending > 0)
+            {
+                try
+                {
+                    lock.wait();
+                }
+                catch (InterruptedException e)
+                {
+                    // Workers are not interruptible, wait for them anyway
+                    interrupted = true;
+                }
+            }
+            if (interrupted)
+                Thread.currentThread().interrupt();
+            this.task = null;
+            workerFailure = failure;
+        }
+
+        Throwable t = callerFailure != null ? callerFailure : workerFailure;
+        if (t instanceof RuntimeException)
+            throw (RuntimeException) t;
+        if (t instanceof Error)
+            throw (Error) t;
+    }
+
+    /**
+     * Stops the threads, once they finish the current run.
+     */
+    public void shutdown()
+    {
+        synchronized (lock)
+        {
+            shutdown = true;
+            lock.notifyAll();
+        }
+    }
+
+    private void runPartition(RangeTask task, int count, int partition)
+    {
+        int from = (int) ((long) count * partition / parallelism);
+        int to = (int) ((long) count * (partition + 1) / parallelism);
+        if (from < to)
+            task.run(from, to);
+    }
+
+    private class Worker extends Thread
+    {
+        private final int partition;
+
+        Worker(int partition)
+        {
+            super("WorkerPool-" + partition);
+            this.partition = partition;
+            setDaemon(true);
+        }
+
+        @Override
+        public void run()
+        {
+            int seen = 0;
+            while (true)
+            {
+                RangeTask t;
+                int c;
+                synchronized (lock)
+                {
+                    while (generation == seen && !shutdown)
+                    {
+                        try
+                        {
+                            lock.wait();
+                        }
+                        catch (InterruptedException e)
+                        {
+                            // Only shutdown stops a worker
+                        }
+                    }
+                    // Shut down, with no run left to do
+                    if (generation == seen)
+                        return;
+                    seen = generation;
+                    t = task;
+                    c = count;
+                }
+
+                Throwable error = null;
+                try
+                {
+                    runPartition(t, c, partition);
+                }
+                catch (Throwable e)
+                {
+                    error = e;
+                }
+
+                synchronized (lock)
+                {
+                    if (error != null && failure == null)
+                        failure = error;
+                    if (--pending == 0)
+                        lock.notifyAll();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.qopru.thedot.core;
+
+/**
+ * Copy of everything rendering needs from the game state, taken at the end
+ * of a physics step.
+ * Positions are in game units, as in the simulation.
+ * Only the simulation writes it, for everybody else it's read only.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public class WorldSnapshot
+{
+    // Increasing number assigned when published
+    public long sequence;
+    // Time of the step, in nanoseconds
+    public long stepTime;
+    // Length of the step, in nanoseconds
+    public long stepNanos;
+
+    public Simulation.Status status;
+    public float countdown;
+    // Newest sensor sample that moved the dot, nanoseconds
+    public long inputTimestamp;
+    // Game time of the animations at the previous step and at this one,
+    // nanoseconds
+    public long prevAnimationTime, animationTime;
+
+    public float prevPlayerX, prevPlayerY;
+    public float playerX, playerY;
+    // Progress of the animations, from 0 to 1
+    public boolean deathAnimation;
+    public float deathAnimationProgress;
+    public boolean endingAnimation;
+    public float endingAnimationProgress;
+
+    public boolean hasGate;
+    public float gateX, gateY;
+
+    public int wellCount;
+    public float[] wellX = new float[0];
+    public float[] wellY = new float[0];
+
+    public int enemyCount;
+    public float[] prevEnemyX = new float[0];
+    public float[] prevEnemyY = new float[0];
+    public float[] enemyX = new float[0];
+    public float[] enemyY = new float[0];
+
+    void setWellCount(int count)
+    {
+        if (wellX.length < count)
+        {
+            wellX = new float[count];
+            wellY = new float[count];
+        }
+        wellCount = count;
+    }
+
+    void setEnemyCount(int count)
+    {
+        if (enemyX.length < count)
+        {
+            prevEnemyX = new float[count];
+            prevEnemyY = new float[count];
+            enemyX = new float[count];
+            enemyY = new float[count];
+        }
+        enemyCount = count;
+    }
+
+    /**
+     * Rendering happens one step behind the simulation: the state shown at
+     * a frame time is between the previous and the current position of this
+     * step.
+     *
+     * @param frameTime nanoseconds
+     * @return 0 for the previous position, 1 for the current one.
+     */
+    public float getInterpolation(long frameTime)
+    {
+        if (stepNanos <= 0)
+            return 1f;
+        float interpolation = (float) (frameTime - stepTime) / stepNanos;
+        if (interpolation < 0f)
+            return 0f;
+        if (interpolation > 1f)
+            return 1f;
+        return interpolation;
+    }
+
+    /**
+     * Animations are interpolated like the positions, so that they advance
+     * smoothly also when frames are more than steps.
+     *
+     * @param interpolation as given by getInterpolation.
+     * @return game time of the animations at the frame, nanoseconds.
+     */
+    public long getAnimationTime(float interpolation)
+    {
+        return prevAnimationTime + (long) ((animationTime - prevAnimationTime) * interpolation);
+    }
+}
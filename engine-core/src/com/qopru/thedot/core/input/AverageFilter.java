@@ -0,0 +1,58 @@
+package com.qopru.thedot.core.input;
+
+import com.qopru.thedot.core.SensorRing;
+import com.qopru.thedot.core.math.Vec2;
+
+/**
+ * Average of the samples since the previous step. When none arrived, the
+ * previous value again.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+final class AverageFilter extends InputFilter
+{
+    private float sumX;
+    private float sumY;
+    // Timestamps relative to the first of the average, not to overflow
+    private long firstTimestamp;
+    private long sumTimestamps;
+    private int count;
+
+    private float x;
+    private float y;
+    private long timestamp = NO_SAMPLE;
+
+    @Override
+    public Kind getKind()
+    {
+        return Kind.AVERAGE;
+    }
+
+    @Override
+    public void add(long timestamp, float x, float y)
+    {
+        if (count == 0)
+            firstTimestamp = timestamp;
+        sumX += x;
+        sumY += y;
+        sumTimestamps += timestamp - firstTimestamp;
+        count++;
+    }
+
+    @Override
+    public long get(long time, SensorRing.Sample next, Vec2 value)
+    {
+        if (count > 0)
+        {
+            x = sumX / count;
+            y = sumY / count;
+            timestamp = firstTimestamp + sumTimestamps / count;
+            sumX = 0;
+            sumY = 0;
+            sumTimestamps = 0;
+            count = 0;
+        }
+        value.set(x, y);
+        return timestamp;
+    }
+}
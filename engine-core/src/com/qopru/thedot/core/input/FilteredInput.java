@@ -0,0 +1,168 @@
+package com.qopru.thedot.core.input;
+
+import com.qopru.thedot.core.LatencyHistogram;
+import com.qopru.thedot.core.SensorRing;
+import com.qopru.thedot.core.interfaces.InputSource;
+import com.qopru.thedot.core.math.Vec2;
+
+/**
+ * Input of the physics steps: the sensor samples up to the step time, passed
+ * through a filter.
+ * Measures at every step the latency from sensor to physics: how old the
+ * input is compared to the step time. Also measures how much of it is added
+ * by the filter, compared to just taking the latest sample. The jitter is
+ * the spread of the latency, from the 5th to the 95th percentile.
+ *
+ * The filter can be changed from any thread, it applies from the next step
+ * and the measurements start again.
+ *
+ * What the steps read can be recorded with a {@link TraceRecorder}.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public final class FilteredInput implements InputSource
+{
+    // Samples older than this, compared to the step, are not used:
+    // after a pause, the input starts again from the recent ones.
+    private static final long MAX_SAMPLE_AGE = 100000000L;
+
+    final SensorRing ring;
+    private final SensorRing.Sample sample = new SensorRing.Sample();
+
+    private volatile InputFilter.Kind kind;
+    private InputFilter filter;
+    // Timestamp of the latest sample added to the filter
+    private long latestTimestamp = InputFilter.NO_SAMPLE;
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LatencyHistogram addedLatency = new LatencyHistogram();
+    private volatile boolean resetRequested;
+    private volatile boolean restartRequested;
+
+    private volatile TraceRecorder recorder;
+
+    /**
+     * @param ring where the samples arrive.
+     * @param kind the filter to start with.
+     */
+    public FilteredInput(SensorRing ring, InputFilter.Kind kind)
+    {
+        if (ring == null || kind == null)
+            throw new IllegalArgumentException("ring and kind must not be null");
+        this.ring = ring;
+        this.kind = kind;
+        filter = InputFilter.create(kind);
+    }
+
+    public void setFilter(InputFilter.Kind kind)
+    {
+        if (kind == null)
+            throw new IllegalArgumentException("kind must not be null");
+        this.kind = kind;
+    }
+
+    public InputFilter.Kind getFilter()
+    {
+        return kind;
+    }
+
+    /**
+     * Starts the measurements again, from the next step.
+     */
+    public void resetMeasurements()
+    {
+        resetRequested = true;
+    }
+
+    /**
+     * Forgets the samples seen so far: from the next step the filter starts
+     * again, as for a new game.
+     */
+    public void restart()
+    {
+        restartRequested = true;
+    }
+
+    /**
+     * Records the filter and the samples of every step, from the next one.
+     *
+     * @param recorder null to stop recording.
+     */
+    public void setRecorder(TraceRecorder recorder)
+    {
+        this.recorder = recorder;
+    }
+
+    @Override
+    public long read(long time, Vec2 acceleration)
+    {
+        InputFilter.Kind k = kind;
+        if (restartRequested || filter.getKind() != k)
+        {
+            restartRequested = false;
+            filter = InputFilter.create(k);
+            latestTimestamp = InputFilter.NO_SAMPLE;
+            resetRequested = true;
+        }
+        if (resetRequested)
+        {
+            resetRequested = false;
+            latency.reset();
+            addedLatency.reset();
+        }
+
+        TraceRecorder r = recorder;
+        if (r != null)
+            r.filter(k);
+
+        ring.skipUntil(time - MAX_SAMPLE_AGE);
+        while (ring.next(sample, time))
+        {
+            if (r != null)
+                r.sample(ring.getReadPosition() - 1, sample);
+            filter.add(sample.timestamp, sample.x, sample.y);
+            latestTimestamp = sample.timestamp;
+        }
+        SensorRing.Sample next = null;
+        if (ring.peek(sample))
+        {
+            if (r != null)
+                r.sample(ring.getReadPosition(), sample);
+            next = sample;
+        }
+
+        long timestamp = filter.get(time, next, acceleration);
+        if (timestamp == InputFilter.NO_SAMPLE)
+        {
+            acceleration.set(0, 0);
+            return NO_SAMPLE;
+        }
+        latency.record(Math.max(0, time - timestamp));
+        addedLatency.record(Math.max(0, latestTimestamp - timestamp));
+        return latestTimestamp;
+    }
+
+    /**
+     * @return median age of the input compared to the step, nanoseconds.
+     */
+    public long getLatencyNanos()
+    {
+        return latency.getPercentileNanos(50);
+    }
+
+    /**
+     * @return median latency added by the filter, nanoseconds.
+     */
+    public long getAddedLatencyNanos()
+    {
+        return addedLatency.getPercentileNanos(50);
+    }
+
+    /**
+     * @return spread of the latency, nanoseconds.
+     */
+    public long getJitterNanos()
+    {
+        return latency.getPercentileNanos(95) - latency.getPercentileNanos(5);
+    }
+}
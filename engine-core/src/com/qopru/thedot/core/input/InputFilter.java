@@ -0,0 +1,75 @@
+package com.qopru.thedot.core.input;
+
+import com.qopru.thedot.core.SensorRing;
+import com.qopru.thedot.core.interfaces.InputSource;
+import com.qopru.thedot.core.math.Vec2;
+
+/**
+ * Turns the sensor samples into the input of a physics step.
+ * Besides the value, a filter tells the time its value corresponds to:
+ * how far that is from the step time is the latency of the input.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public abstract class InputFilter
+{
+    public enum Kind
+    {
+        // Average of the samples since the previous step
+        AVERAGE,
+        // Latest sample
+        RAW,
+        // Exponential low pass
+        LOW_PASS,
+        // Low pass that follows fast movements closer, and smooths slow ones more
+        ONE_EURO,
+        // Samples around the step time, interpolated at the step time
+        INTERPOLATED
+    }
+
+    /**
+     * There has been no sample yet.
+     */
+    public static final long NO_SAMPLE = InputSource.NO_SAMPLE;
+
+    public static InputFilter create(Kind kind)
+    {
+        if (kind == null)
+            throw new IllegalArgumentException("kind must not be null");
+        switch (kind)
+        {
+            case AVERAGE:
+                return new AverageFilter();
+            case RAW:
+                return new RawFilter();
+            case LOW_PASS:
+                return new LowPassFilter();
+            case ONE_EURO:
+                return new OneEuroFilter();
+            case INTERPOLATED:
+                return new InterpolatingFilter();
+        }
+        throw new IllegalArgumentException("unknown kind: " + kind);
+    }
+
+    public abstract Kind getKind();
+
+    /**
+     * A sample, in time order.
+     *
+     * @param timestamp nanoseconds
+     * @param x
+     * @param y
+     */
+    public abstract void add(long timestamp, float x, float y);
+
+    /**
+     * The input for a step, once the samples up to its time have been added.
+     *
+     * @param time of the step, nanoseconds.
+     * @param next the first sample after time, null if none arrived yet.
+     * @param value receives the input.
+     * @return the time the value corresponds to, or {@link #NO_SAMPLE}.
+     */
+    public abstract long get(long time, SensorRing.Sample next, Vec2 value);
+}
@@ -0,0 +1,45 @@
+package com.qopru.thedot.core.input;
+
+import com.qopru.thedot.core.SensorRing;
+import com.qopru.thedot.core.math.Vec2;
+
+/**
+ * The value at the exact time of the step, interpolated between the
+ * samples before and after it. When the sample after has not arrived yet,
+ * the one before.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+final class InterpolatingFilter extends InputFilter
+{
+    private float x;
+    private float y;
+    private long timestamp = NO_SAMPLE;
+
+    @Override
+    public Kind getKind()
+    {
+        return Kind.INTERPOLATED;
+    }
+
+    @Override
+    public void add(long timestamp, float x, float y)
+    {
+        this.x = x;
+        this.y = y;
+        this.timestamp = timestamp;
+    }
+
+    @Override
+    public long get(long time, SensorRing.Sample next, Vec2 value)
+    {
+        if (timestamp == NO_SAMPLE || next == null || next.timestamp <= timestamp)
+        {
+            value.set(x, y);
+            return timestamp;
+        }
+        float t = (float) (time - timestamp) / (float) (next.timestamp - timestamp);
+        value.set(x + (next.x - x) * t, y + (next.y - y) * t);
+        return time;
+    }
+}
@@ -0,0 +1,59 @@
+package com.qopru.thedot.core.input;
+
+import com.qopru.thedot.core.SensorRing;
+import com.qopru.thedot.core.math.Vec2;
+
+/**
+ * Exponential low pass: each sample moves the value towards itself by how
+ * much time passed, compared to the time constant.
+ * The time of the value is filtered the same way, so the latency includes
+ * the delay of the smoothing.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+final class LowPassFilter extends InputFilter
+{
+    // Time constant, nanoseconds
+    private static final float TAU = 30000000f;
+
+    private float x;
+    private float y;
+    // Time of the filtered value
+    private long timestamp = NO_SAMPLE;
+    // Time of the latest sample
+    private long lastTimestamp;
+
+    @Override
+    public Kind getKind()
+    {
+        return Kind.LOW_PASS;
+    }
+
+    @Override
+    public void add(long timestamp, float x, float y)
+    {
+        if (this.timestamp == NO_SAMPLE)
+        {
+            this.x = x;
+            this.y = y;
+            this.timestamp = timestamp;
+            lastTimestamp = timestamp;
+            return;
+        }
+        float dt = timestamp - lastTimestamp;
+        if (dt <= 0)
+            return;
+        lastTimestamp = timestamp;
+        float alpha = dt / (TAU + dt);
+        this.x += (x - this.x) * alpha;
+        this.y += (y - this.y) * alpha;
+        this.timestamp += (long) ((timestamp - this.timestamp) * alpha);
+    }
+
+    @Override
+    public long get(long time, SensorRing.Sample next, Vec2 value)
+    {
+        value.set(x, y);
+        return timestamp;
+    }
+}
@@ -0,0 +1,85 @@
+package com.qopru.thedot.core.input;
+
+import com.qopru.thedot.core.SensorRing;
+import com.qopru.thedot.core.math.Vec2;
+
+/**
+ * One euro filter (Casiez, Roussel, Vogel 2012): a low pass whose cutoff
+ * rises with the speed of change of the value. Still hands get smoothed a
+ * lot, quick tilts pass almost as they are.
+ * The time of the value is filtered with the average smoothing of the two
+ * axes.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+final class OneEuroFilter extends InputFilter
+{
+    // Cutoff with no change, Hz
+    private static final float MIN_CUTOFF = 2f;
+    // How much the cutoff rises with the speed of change, per m/s^3
+    private static final float BETA = 0.3f;
+    // Cutoff for the speed of change, Hz
+    private static final float DERIVATIVE_CUTOFF = 1f;
+    private static final float NANOS_PER_SECOND = 1e9f;
+
+    private float x;
+    private float y;
+    // Speed of change, per second
+    private float dx;
+    private float dy;
+    // Time of the filtered value
+    private long timestamp = NO_SAMPLE;
+    // Time of the latest sample
+    private long lastTimestamp;
+
+    @Override
+    public Kind getKind()
+    {
+        return Kind.ONE_EURO;
+    }
+
+    @Override
+    public void add(long timestamp, float x, float y)
+    {
+        if (this.timestamp == NO_SAMPLE)
+        {
+            this.x = x;
+            this.y = y;
+            this.timestamp = timestamp;
+            lastTimestamp = timestamp;
+            return;
+        }
+        float seconds = (timestamp - lastTimestamp) / NANOS_PER_SECOND;
+        if (seconds <= 0)
+            return;
+        lastTimestamp = timestamp;
+
+        float derivativeAlpha = alpha(DERIVATIVE_CUTOFF, seconds);
+        dx += ((x - this.x) / seconds - dx) * derivativeAlpha;
+        dy += ((y - this.y) / seconds - dy) * derivativeAlpha;
+
+        float alphaX = alpha(MIN_CUTOFF + BETA * Math.abs(dx), seconds);
+        float alphaY = alpha(MIN_CUTOFF + BETA * Math.abs(dy), seconds);
+        this.x += (x - this.x) * alphaX;
+        this.y += (y - this.y) * alphaY;
+        this.timestamp += (long) ((timestamp - this.timestamp) * (alphaX + alphaY) / 2);
+    }
+
+    @Override
+    public long get(long time, SensorRing.Sample next, Vec2 value)
+    {
+        value.set(x, y);
+        return timestamp;
+    }
+
+    /**
+     * @param cutoff Hz
+     * @param seconds since the previous sample
+     * @return smoothing factor of a low pass with that cutoff.
+     */
+    private static float alpha(float cutoff, float seconds)
+    {
+        float tau = 1f / (2f * (float) Math.PI * cutoff);
+        return seconds / (tau + seconds);
+    }
+}
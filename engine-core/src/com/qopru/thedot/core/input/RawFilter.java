@@ -0,0 +1,37 @@
+package com.qopru.thedot.core.input;
+
+import com.qopru.thedot.core.SensorRing;
+import com.qopru.thedot.core.math.Vec2;
+
+/**
+ * The latest sample as it is.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+final class RawFilter extends InputFilter
+{
+    private float x;
+    private float y;
+    private long timestamp = NO_SAMPLE;
+
+    @Override
+    public Kind getKind()
+    {
+        return Kind.RAW;
+    }
+
+    @Override
+    public void add(long timestamp, float x, float y)
+    {
+        this.x = x;
+        this.y = y;
+        this.timestamp = timestamp;
+    }
+
+    @Override
+    public long get(long time, SensorRing.Sample next, Vec2 value)
+    {
+        value.set(x, y);
+        return timestamp;
+    }
+}
@@ -0,0 +1,38 @@
+package com.qopru.thedot.core.input;
+
+/**
+ * Layout of the input trace files, big endian.
+ *
+ * The header holds what the levels are made from: the seed of their random
+ * generator and the bounds of the game. Then, for each physics step, a step
+ * record followed by what the input did during that step: the filter it
+ * switched to, the sensor samples it saw for the first time.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+final class TraceFormat
+{
+    // "DOTI"
+    static final int MAGIC = 0x444F5449;
+    // 2: each level is made from its own seed
+    static final short VERSION = 2;
+    // magic, version, seed, bounds left top right bottom
+    static final int HEADER_SIZE = 4 + 2 + 8 + 4 * 4;
+
+    // step time (long, nanoseconds), delta (float, milliseconds),
+    // status at the start of the step (byte, ordinal)
+    static final byte STEP = 1;
+    static final int STEP_SIZE = 1 + 8 + 4 + 1;
+    // timestamp (long, nanoseconds), x y z (float)
+    static final byte SAMPLE = 2;
+    static final int SAMPLE_SIZE = 1 + 8 + 4 * 3;
+    // filter kind (byte, ordinal)
+    static final byte FILTER = 3;
+    static final int FILTER_SIZE = 1 + 1;
+
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    private TraceFormat()
+    {
+    }
+}
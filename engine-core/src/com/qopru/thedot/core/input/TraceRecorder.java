@@ -0,0 +1,191 @@
+package com.qopru.thedot.core.input;
+
+import com.qopru.thedot.core.SensorRing;
+import com.qopru.thedot.core.Simulation;
+import com.qopru.thedot.core.math.Bounds;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Writes an input trace: everything a game needs to be played again exactly
+ * the same, see {@link TraceReplay}.
+ * The samples are the ones the simulation actually saw, step by step, so
+ * that the filters get the same input at the same steps when replayed.
+ *
+ * Records are collected in a buffer and written to the channel when it is
+ * full. A failed write stops the recording, the game goes on.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public final class TraceRecorder implements Closeable
+{
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(TraceFormat.BUFFER_SIZE);
+
+    // Last filter recorded
+    private InputFilter.Kind kind;
+    // Position in the sensor ring of the first sample not recorded yet
+    private long nextSample;
+
+    private IOException error;
+    private boolean closed;
+
+    /**
+     * @param channel where the trace is written, closed with the recorder.
+     * @param seed of the random generator of the levels.
+     * @param bounds of the game.
+     */
+    public TraceRecorder(WritableByteChannel channel, long seed, Bounds bounds)
+    {
+        if (channel == null || bounds == null)
+            throw new IllegalArgumentException("channel and bounds must not be null");
+        this.channel = channel;
+        buffer.putInt(TraceFormat.MAGIC);
+        buffer.putShort(TraceFormat.VERSION);
+        buffer.putLong(seed);
+        buffer.putFloat(bounds.left);
+        buffer.putFloat(bounds.top);
+        buffer.putFloat(bounds.right);
+        buffer.putFloat(bounds.bottom);
+    }
+
+    /**
+     * Runs a physics step, recording it.
+     * The input of the simulation must be a {@link FilteredInput} recording
+     * to this same recorder.
+     *
+     * @param sim
+     * @param stepTime nanoseconds
+     * @param deltaT milliseconds
+     */
+    public void update(Simulation sim, long stepTime, float deltaT)
+    {
+        Simulation.Status status = sim.getStatus();
+        // Not started yet, the step does nothing
+        if (status != null)
+            step(stepTime, deltaT, status);
+        sim.update(stepTime, deltaT);
+    }
+
+    private synchronized void step(long stepTime, float deltaT, Simulation.Status status)
+    {
+        if (!reserve(TraceFormat.STEP_SIZE))
+            return;
+        buffer.put(TraceFormat.STEP);
+        buffer.putLong(stepTime);
+        buffer.putFloat(deltaT);
+        buffer.put((byte) status.ordinal());
+    }
+
+    /**
+     * The filter used in the current step, recorded when it changes.
+     *
+     * @param kind
+     */
+    synchronized void filter(InputFilter.Kind kind)
+    {
+        if (kind == this.kind || !reserve(TraceFormat.FILTER_SIZE))
+            return;
+        buffer.put(TraceFormat.FILTER);
+        buffer.put((byte) kind.ordinal());
+        this.kind = kind;
+    }
+
+    /**
+     * A sample seen in the current step. A sample seen twice, peeked at in
+     * a step and read in the next, is recorded only the first time.
+     *
+     * @param position of the sample in the sensor ring.
+     * @param sample
+     */
+    synchronized void sample(long position, SensorRing.Sample sample)
+    {
+        if (position < nextSample || !reserve(TraceFormat.SAMPLE_SIZE))
+            return;
+        buffer.put(TraceFormat.SAMPLE);
+        buffer.putLong(sample.timestamp);
+        buffer.putFloat(sample.x);
+        buffer.putFloat(sample.y);
+        buffer.putFloat(sample.z);
+        nextSample = position + 1;
+    }
+
+    /**
+     * Writes what is buffered.
+     *
+     * @throws IOException if this or any earlier write failed.
+     */
+    public synchronized void flush() throws IOException
+    {
+        if (error == null && !closed)
+            drain();
+        if (error != null)
+            throw error;
+    }
+
+    /**
+     * Writes what is buffered and closes the channel.
+     *
+     * @throws IOException if this or any earlier write failed.
+     */
+    @Override
+    public synchronized void close() throws IOException
+    {
+        if (closed)
+            return;
+        if (error == null)
+            drain();
+        closed = true;
+        try
+        {
+            channel.close();
+        }
+        catch (IOException e)
+        {
+            if (error == null)
+                error = e;
+        }
+        if (error != null)
+            throw error;
+    }
+
+    /**
+     * @return the write that stopped the recording, null if none failed.
+     */
+    public synchronized IOException getError()
+    {
+        return error;
+    }
+
+    /**
+     * Makes room in the buffer for a record.
+     *
+     * @param size
+     * @return false if the recording is over.
+     */
+    private boolean reserve(int size)
+    {
+        if (error != null || closed)
+            return false;
+        if (buffer.remaining() < size)
+            drain();
+        return error == null;
+    }
+
+    private void drain()
+    {
+        buffer.flip();
+        try
+        {
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+        }
+        catch (IOException e)
+        {
+            error = e;
+        }
+        buffer.clear();
+    }
+}
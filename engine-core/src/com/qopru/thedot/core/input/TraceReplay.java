@@ -0,0 +1,196 @@
+package com.qopru.thedot.core.input;
+
+import com.qopru.thedot.core.Simulation;
+import com.qopru.thedot.core.math.Bounds;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Plays an input trace written by {@link TraceRecorder}.
+ * The simulation must be a new one, made with the bounds and the seed of
+ * the trace, reading from the given input, which must not be used by
+ * anything else meanwhile. The steps are then the same as recorded, with
+ * the same results.
+ *
+ * Before each step its samples are added to the sensor ring of the input,
+ * the filter is changed if it was, and the game is paused or resumed with
+ * {@link Simulation#togglePause()} as it was.
+ * The steps can either run as fast as the caller goes, or follow a clock:
+ * in this case the times of the trace are shifted to start at the first
+ * call, which changes nothing of the results as they only depend on the
+ * differences between times.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public final class TraceReplay implements Closeable
+{
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(TraceFormat.BUFFER_SIZE);
+    private final FilteredInput input;
+    private final InputFilter.Kind[] kinds = InputFilter.Kind.values();
+    private final Simulation.Status[] statuses = Simulation.Status.values();
+
+    private final long seed;
+    private final Bounds bounds;
+
+    private boolean started;
+    // Added to the times of the trace
+    private long offset;
+
+    /**
+     * Reads the header of the trace.
+     *
+     * @param channel where the trace is read from, closed with the replay.
+     * @param input what the simulation reads from.
+     * @throws IOException if it's not a trace.
+     */
+    public TraceReplay(ReadableByteChannel channel, FilteredInput input) throws IOException
+    {
+        if (channel == null || input == null)
+            throw new IllegalArgumentException("channel and input must not be null");
+        this.channel = channel;
+        this.input = input;
+        buffer.limit(0);
+        if (!fill(TraceFormat.HEADER_SIZE) || buffer.getInt() != TraceFormat.MAGIC)
+            throw new IOException("not an input trace");
+        short version = buffer.getShort();
+        if (version != TraceFormat.VERSION)
+            throw new IOException("unsupported trace version " + version);
+        seed = buffer.getLong();
+        bounds = new Bounds(buffer.getFloat(), buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+    }
+
+    /**
+     * @return seed of the random generator of the levels.
+     */
+    public long getSeed()
+    {
+        return seed;
+    }
+
+    /**
+     * @return bounds of the game.
+     */
+    public Bounds getBounds()
+    {
+        return bounds;
+    }
+
+    /**
+     * Runs the recorded steps up to a time.
+     * The first call runs the first step, and sets the time of the trace.
+     *
+     * @param sim
+     * @param time nanoseconds
+     * @return false at the end of the trace.
+     * @throws IOException
+     */
+    public boolean advance(Simulation sim, long time) throws IOException
+    {
+        if (!started)
+        {
+            if (!fill(TraceFormat.STEP_SIZE))
+                return false;
+            offset = time - buffer.getLong(buffer.position() + 1);
+        }
+        while (fill(TraceFormat.STEP_SIZE))
+        {
+            if (buffer.getLong(buffer.position() + 1) + offset > time)
+                return true;
+            step(sim);
+        }
+        return false;
+    }
+
+    /**
+     * Runs the next recorded step.
+     *
+     * @param sim
+     * @return false at the end of the trace.
+     * @throws IOException
+     */
+    public boolean step(Simulation sim) throws IOException
+    {
+        if (!started)
+        {
+            // Whatever arrived before belongs to another game
+            input.ring.skipAll();
+            started = true;
+        }
+        if (!fill(TraceFormat.STEP_SIZE))
+            return false;
+        if (buffer.get() != TraceFormat.STEP)
+            throw new IOException("corrupted trace");
+        long stepTime = buffer.getLong() + offset;
+        float deltaT = buffer.getFloat();
+        Simulation.Status status = statuses[index(buffer.get(), statuses.length)];
+
+        // What the input did during the step
+        while (fill(1))
+        {
+            byte type = buffer.get(buffer.position());
+            if (type == TraceFormat.STEP)
+                break;
+            if (type == TraceFormat.SAMPLE)
+            {
+                if (!fill(TraceFormat.SAMPLE_SIZE))
+                    break;
+                buffer.get();
+                long timestamp = buffer.getLong() + offset;
+                input.ring.add(timestamp, buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+            }
+            else if (type == TraceFormat.FILTER)
+            {
+                if (!fill(TraceFormat.FILTER_SIZE))
+                    break;
+                buffer.get();
+                input.setFilter(kinds[index(buffer.get(), kinds.length)]);
+            }
+            else
+                throw new IOException("corrupted trace");
+        }
+
+        if (sim.getStatus() != status)
+            sim.togglePause();
+        if (sim.getStatus() != status)
+            throw new IllegalStateException("the simulation does not follow the trace");
+        sim.update(stepTime, deltaT);
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        channel.close();
+    }
+
+    private static int index(byte ordinal, int count) throws IOException
+    {
+        if (ordinal < 0 || ordinal >= count)
+            throw new IOException("corrupted trace");
+        return ordinal;
+    }
+
+    /**
+     * Makes a record available in the buffer.
+     * A record cut at the end, from a recording that was not closed, ends
+     * the trace.
+     *
+     * @param size
+     * @return false at the end of the trace.
+     */
+    private boolean fill(int size) throws IOException
+    {
+        while (buffer.remaining() < size)
+        {
+            buffer.compact();
+            int read = channel.read(buffer);
+            buffer.flip();
+            if (read < 0)
+                return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,26 @@
+package com.qopru.thedot.core.interfaces;
+
+/**
+ * Source of monotonic time.
+ * 
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public interface Clock
+{
+    /**
+     * The system monotonic clock.
+     */
+    public static final Clock SYSTEM = new Clock()
+    {
+        @Override
+        public long nanoTime()
+        {
+            return System.nanoTime();
+        }
+    };
+    
+    /**
+     * @return current time in nanoseconds, only meaningful as a difference.
+     */
+    public long nanoTime();
+}
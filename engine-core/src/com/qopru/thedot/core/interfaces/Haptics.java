@@ -0,0 +1,11 @@
+package com.qopru.thedot.core.interfaces;
+
+/**
+ * Feedback to the player through vibration.
+ * 
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public interface Haptics
+{
+    public void vibrate(long millis);
+}
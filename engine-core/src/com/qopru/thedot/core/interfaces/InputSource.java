@@ -0,0 +1,27 @@
+package com.qopru.thedot.core.interfaces;
+
+import com.qopru.thedot.core.math.Vec2;
+
+/**
+ * Where the acceleration moving the dot comes from.
+ * 
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public interface InputSource
+{
+    /**
+     * No sensor sample arrived yet.
+     */
+    public static final long NO_SAMPLE = Long.MIN_VALUE;
+
+    /**
+     * Called once per physics step.
+     * 
+     * @param time the time of the step, in nanoseconds.
+     * @param acceleration receives the acceleration at that time, already
+     * in game axes.
+     * @return timestamp of the newest sample the acceleration depends on,
+     * nanoseconds, or {@link #NO_SAMPLE}.
+     */
+    public long read(long time, Vec2 acceleration);
+}
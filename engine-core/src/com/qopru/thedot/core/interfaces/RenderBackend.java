@@ -0,0 +1,34 @@
+package com.qopru.thedot.core.interfaces;
+
+/**
+ * Executes the commands of a render buffer, on whatever draws them.
+ * Paints, sprites and layers are ids the backend was given their meaning
+ * for, by whoever records the commands.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public interface RenderBackend
+{
+    public void rect(int paint, float left, float top, float right, float bottom);
+
+    /**
+     * A filled oval inscribed in the rectangle.
+     */
+    public void oval(int paint, float left, float top, float right, float bottom);
+
+    /**
+     * A frame of an animated sprite, stretched on the rectangle.
+     */
+    public void sprite(int sprite, int frame, float left, float top, float right, float bottom);
+
+    /**
+     * A cached layer, of the size of the rectangle.
+     */
+    public void layer(int layer, float left, float top, float right, float bottom);
+
+    /**
+     * @param x of the text origin, as the paint aligns it.
+     * @param y of the baseline.
+     */
+    public void text(int paint, char[] text, int offset, int length, float x, float y);
+}
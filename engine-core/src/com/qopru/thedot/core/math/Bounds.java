@@ -0,0 +1,53 @@
+package com.qopru.thedot.core.math;
+
+/**
+ * Axis aligned rectangle of floats, top is the lower y.
+ * 
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public final class Bounds
+{
+    public float left;
+    public float top;
+    public float right;
+    public float bottom;
+
+    public Bounds()
+    {
+    }
+
+    public Bounds(float left, float top, float right, float bottom)
+    {
+        set(left, top, right, bottom);
+    }
+
+    public Bounds set(float left, float top, float right, float bottom)
+    {
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+        return this;
+    }
+
+    public float width()
+    {
+        return right - left;
+    }
+
+    public float height()
+    {
+        return bottom - top;
+    }
+
+    public boolean contains(float x, float y)
+    {
+        return x >= left && x <= right && y >= top && y <= bottom;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "[" + left + ", " + top + ", " + right + ", " + bottom + "]";
+    }
+}
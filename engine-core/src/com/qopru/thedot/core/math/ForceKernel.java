@@ -0,0 +1,95 @@
+package com.qopru.thedot.core.math;
+
+/**
+ * Float math for the forces and the steering of the simulation.
+ * Directions are obtained by normalizing the distance vector, no angles
+ * and no trigonometry involved. Distances are compared squared, so that
+ * what is out of range costs no square root.
+ *
+ * The approximate kernel uses a fast inverse square root, with a relative
+ * error below 0.2%.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public final class ForceKernel
+{
+    public static final ForceKernel EXACT = new ForceKernel(false);
+    public static final ForceKernel APPROXIMATE = new ForceKernel(true);
+
+    private final boolean approximate;
+
+    private ForceKernel(boolean approximate)
+    {
+        this.approximate = approximate;
+    }
+
+    public boolean isApproximate()
+    {
+        return approximate;
+    }
+
+    /**
+     * @param x must be greater than 0.
+     * @return 1 / sqrt(x)
+     */
+    public float invSqrt(float x)
+    {
+        return approximate ? fastInvSqrt(x) : 1f / (float) Math.sqrt(x);
+    }
+
+    /**
+     * Scale to apply to the vector dx, dy so that it becomes as long as
+     * the given length, keeping its direction.
+     *
+     * @param dx
+     * @param dy
+     * @param length
+     * @return 0 if the vector is zero: there is no direction to follow.
+     */
+    public float scaleTo(float dx, float dy, float length)
+    {
+        float d2 = dx * dx + dy * dy;
+        if (d2 == 0)
+            return 0;
+        return length * invSqrt(d2);
+    }
+
+    /**
+     * Adds an attraction of power / (distance + 1) in the direction of
+     * dx, dy, where distance is the length of dx, dy.
+     * Negative power pushes away.
+     *
+     * @param force where the attraction is added.
+     * @param dx
+     * @param dy
+     * @param power
+     * @param maxDistance beyond this there is no attraction.
+     * @return if the attraction was in range and has been added.
+     */
+    public boolean addAttraction(Vec2 force, float dx, float dy, float power, float maxDistance)
+    {
+        float d2 = dx * dx + dy * dy;
+        // At the center there is no direction
+        if (d2 > maxDistance * maxDistance || d2 == 0)
+            return false;
+        float inv = invSqrt(d2);
+        // d2 * inv is the distance
+        float f = power * inv / (d2 * inv + 1);
+        force.x += dx * f;
+        force.y += dy * f;
+        return true;
+    }
+
+    /**
+     * Inverse square root from the float bits plus a Newton iteration.
+     *
+     * @param x must be greater than 0.
+     * @return 1 / sqrt(x), relative error below 0.2%.
+     */
+    static float fastInvSqrt(float x)
+    {
+        float half = 0.5f * x;
+        float y = Float.intBitsToFloat(0x5f375a86 - (Float.floatToRawIntBits(x) >> 1));
+        return y * (1.5f - half * y * y);
+    }
+}
@@ -0,0 +1,82 @@
+package com.qopru.thedot.core.math;
+
+/**
+ * Continuous collision of a point moving along a segment against a circle
+ * centered in 0,0. The time of a step goes from 0, at the start of the
+ * segment, to 1, at its end.
+ * For two moving objects, use the segment of one relative to the other:
+ * from (start1 - start2) to (end1 - end2).
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public final class Sweep
+{
+    /**
+     * Never inside the circle during the step.
+     */
+    public static final float MISS = -1;
+
+    private Sweep()
+    {
+    }
+
+    /**
+     * @param x0 start
+     * @param y0 start
+     * @param x1 end
+     * @param y1 end
+     * @param radius
+     * @return first time, 0 to 1, at which the point is inside the circle,
+     * or {@link #MISS}.
+     */
+    public static float enter(float x0, float y0, float x1, float y1, float radius)
+    {
+        return solve(x0, y0, x1, y1, radius, true);
+    }
+
+    /**
+     * @param x0 start
+     * @param y0 start
+     * @param x1 end
+     * @param y1 end
+     * @param radius
+     * @return last time, 0 to 1, at which the point is inside the circle,
+     * or {@link #MISS}.
+     */
+    public static float leave(float x0, float y0, float x1, float y1, float radius)
+    {
+        return solve(x0, y0, x1, y1, radius, false);
+    }
+
+    /**
+     * Solves |start + t * (end - start)| = radius and keeps the part of the
+     * step inside the circle.
+     */
+    private static float solve(float x0, float y0, float x1, float y1, float radius, boolean first)
+    {
+        float dx = x1 - x0;
+        float dy = y1 - y0;
+        // a t^2 + 2 b t + c = 0
+        float a = dx * dx + dy * dy;
+        float b = x0 * dx + y0 * dy;
+        float c = x0 * x0 + y0 * y0 - radius * radius;
+        if (a == 0)
+        {
+            // Not moving: inside for the whole step or never
+            if (c > 0)
+                return MISS;
+            return first ? 0 : 1;
+        }
+        float discriminant = b * b - a * c;
+        if (discriminant < 0)
+            return MISS;
+        float root = (float) Math.sqrt(discriminant);
+        float in = (-b - root) / a;
+        float out = (-b + root) / a;
+        if (out < 0 || in > 1)
+            return MISS;
+        if (first)
+            return in < 0 ? 0 : in;
+        return out > 1 ? 1 : out;
+    }
+}
@@ -0,0 +1,103 @@
+package com.qopru.thedot.core.math;
+
+/**
+ * Mutable 2D vector of floats.
+ * Operations modify this instance, so that vectors can be reused.
+ * 
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public final class Vec2
+{
+    public float x;
+    public float y;
+
+    public Vec2()
+    {
+    }
+
+    public Vec2(float x, float y)
+    {
+        this.x = x;
+        this.y = y;
+    }
+
+    public Vec2 set(float x, float y)
+    {
+        this.x = x;
+        this.y = y;
+        return this;
+    }
+
+    public Vec2 set(Vec2 v)
+    {
+        this.x = v.x;
+        this.y = v.y;
+        return this;
+    }
+
+    public Vec2 add(float x, float y)
+    {
+        this.x += x;
+        this.y += y;
+        return this;
+    }
+
+    /**
+     * Adds another vector scaled by a factor.
+     * @param v
+     * @param factor
+     * @return this
+     */
+    public Vec2 addScaled(Vec2 v, float factor)
+    {
+        this.x += v.x * factor;
+        this.y += v.y * factor;
+        return this;
+    }
+
+    public Vec2 scale(float factor)
+    {
+        this.x *= factor;
+        this.y *= factor;
+        return this;
+    }
+
+    public float lengthSquared()
+    {
+        return x * x + y * y;
+    }
+
+    public float length()
+    {
+        return (float) Math.sqrt(x * x + y * y);
+    }
+
+    /**
+     * @param v
+     * @return squared distance from v.
+     */
+    public float distanceSquared(Vec2 v)
+    {
+        float dx = v.x - x;
+        float dy = v.y - y;
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * @param x
+     * @param y
+     * @return squared distance from the point.
+     */
+    public float distanceSquared(float x, float y)
+    {
+        float dx = x - this.x;
+        float dy = y - this.y;
+        return dx * dx + dy * dy;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "(" + x + ", " + y + ")";
+    }
+}
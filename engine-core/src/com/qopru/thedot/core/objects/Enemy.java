@@ -0,0 +1,26 @@
+package com.qopru.thedot.core.objects;
+
+/**
+ * Chases the dot, touching it is death.
+ * 
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public class Enemy extends Entity
+{
+    public static final float SIZE = 3;
+
+    public Enemy(float x, float y)
+    {
+        super(x, y, SIZE, SIZE);
+    }
+
+    public void setX(float x)
+    {
+        this.x = x;
+    }
+
+    public void setY(float y)
+    {
+        this.y = y;
+    }
+}
@@ -0,0 +1,73 @@
+package com.qopru.thedot.core.objects;
+
+/**
+ * Something placed in the game, position and size are in game units.
+ * 
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public class Entity
+{
+    float x, y, w, h;
+    // Position at the previous physics step
+    float prevX, prevY;
+
+    public Entity(float x, float y, float w, float h)
+    {
+        this.w = w;
+        this.h = h;
+        setPosition(x, y);
+    }
+
+    /**
+     * Places the entity, without any movement from the previous position.
+     * @param x
+     * @param y
+     */
+    public void setPosition(float x, float y)
+    {
+        this.x = x;
+        this.y = y;
+        this.prevX = x;
+        this.prevY = y;
+    }
+
+    /**
+     * Keeps the current position as the previous physics step one.
+     * Rendering interpolates between the two.
+     */
+    public void storePosition()
+    {
+        prevX = x;
+        prevY = y;
+    }
+
+    public float getX()
+    {
+        return x;
+    }
+
+    public float getY()
+    {
+        return y;
+    }
+
+    public float getPrevX()
+    {
+        return prevX;
+    }
+
+    public float getPrevY()
+    {
+        return prevY;
+    }
+
+    public float getW()
+    {
+        return w;
+    }
+
+    public float getH()
+    {
+        return h;
+    }
+}
@@ -0,0 +1,16 @@
+package com.qopru.thedot.core.objects;
+
+/**
+ * The exit of the level.
+ * 
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public class Gate extends Entity
+{
+    public static final float SIZE = 6;
+
+    public Gate(float x, float y)
+    {
+        super(x, y, SIZE, SIZE);
+    }
+}
@@ -0,0 +1,29 @@
+package com.qopru.thedot.core.objects;
+
+/**
+ * Pulls the dot towards itself, or pushes it away.
+ * 
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public class GravityWell extends Entity
+{
+    public static final float SIZE = 4;
+
+    float power; // positive pulls the dot, negative pushes it away
+
+    public GravityWell(float power, float x, float y)
+    {
+        super(x, y, SIZE, SIZE);
+        this.power = power;
+    }
+
+    public float getPower()
+    {
+        return power;
+    }
+
+    public void setPower(float power)
+    {
+        this.power = power;
+    }
+}
@@ -0,0 +1,144 @@
+package com.qopru.thedot.core;
+
+import com.qopru.thedot.core.interfaces.RenderBackend;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A game played with the device tilted around, levels and deaths included:
+ * once warmed up, the physics steps and the frames recorded from their
+ * snapshots must allocate nothing.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public class AllocationTest
+{
+    // Frames to warm up, then to check, at 60Hz
+    private static final int WARM_FRAMES = 6000;
+    private static final int CHECKED_FRAMES = 6000;
+    private static final long STEP_NANOS = 1000000000L / 60;
+
+    // A 1080x1920 portrait screen, as the bounds of the worlds
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+    private static final float UNIT_PIXELS = WIDTH / Worlds.BOUNDS.width();
+    // Ids and depths as the game records them
+    private static final int BACKGROUND = 0;
+    private static final int DOT = 1;
+    private static final int WELL = 4;
+    private static final int ENEMY = 5;
+    private static final int GATE = 6;
+    private static final int DEPTH_OBJECTS = 1;
+    private static final int DEPTH_DOT = 2;
+
+    private final RenderBuffer buffer = new RenderBuffer();
+    private final CountingBackend backend = new CountingBackend();
+
+    @Test
+    public void playsFewEnemiesWithoutAllocating()
+    {
+        checkNoAllocations(5);
+    }
+
+    @Test
+    public void playsSomeEnemiesWithoutAllocating()
+    {
+        checkNoAllocations(100);
+    }
+
+    @Test
+    public void playsManyEnemiesWithoutAllocating()
+    {
+        checkNoAllocations(10000);
+    }
+
+    private void checkNoAllocations(int enemies)
+    {
+        Simulation played = new Simulation(Worlds.BOUNDS, Worlds.CIRCLES, Worlds.NO_HAPTICS, new Random(Worlds.SEED));
+        played.setEnemiesPerLevel(enemies);
+        played.start(0);
+        played.play();
+
+        long time = 0;
+        for (int i = 0; i < WARM_FRAMES; i++, time += STEP_NANOS)
+            frame(played, time);
+        long before = Allocations.current();
+        for (int i = 0; i < CHECKED_FRAMES; i++, time += STEP_NANOS)
+            frame(played, time);
+        long allocated = Allocations.current() - before;
+
+        assertEquals(CHECKED_FRAMES + " frames allocated", 0, allocated);
+        assertTrue("nothing drawn", backend.calls > 0);
+    }
+
+    /**
+     * A physics step, then its frame recorded, prepared and drawn as the
+     * renderer does.
+     */
+    private void frame(Simulation sim, long time)
+    {
+        sim.update(time, Worlds.STEP_MILLIS);
+        WorldSnapshot s = sim.getSnapshots().acquire();
+
+        float centerX = WIDTH / 2;
+        float centerY = HEIGHT / 2;
+        float half = UNIT_PIXELS;
+        buffer.clear();
+        buffer.rect(0, BACKGROUND, 0, 0, WIDTH, HEIGHT);
+        for (int i = 0; i < s.wellCount; i++)
+            square(WELL, centerX + s.wellX[i] * UNIT_PIXELS, centerY + s.wellY[i] * UNIT_PIXELS, half);
+        for (int i = 0; i < s.enemyCount; i++)
+            square(ENEMY, centerX + s.enemyX[i] * UNIT_PIXELS, centerY + s.enemyY[i] * UNIT_PIXELS, half);
+        if (s.hasGate)
+            square(GATE, centerX + s.gateX * UNIT_PIXELS, centerY + s.gateY * UNIT_PIXELS, half);
+        float dotX = centerX + s.playerX * UNIT_PIXELS;
+        float dotY = centerY + s.playerY * UNIT_PIXELS;
+        buffer.oval(DEPTH_DOT, DOT, dotX - half, dotY - half, dotX + half, dotY + half);
+        buffer.prepare(0, 0, WIDTH, HEIGHT);
+        backend.calls = 0;
+        buffer.execute(backend);
+    }
+
+    private void square(int sprite, float x, float y, float half)
+    {
+        buffer.sprite(DEPTH_OBJECTS, sprite, 0, x - half, y - half, x + half, y + half);
+    }
+
+    static final class CountingBackend implements RenderBackend
+    {
+        int calls;
+
+        @Override
+        public void rect(int paint, float left, float top, float right, float bottom)
+        {
+            calls++;
+        }
+
+        @Override
+        public void oval(int paint, float left, float top, float right, float bottom)
+        {
+            calls++;
+        }
+
+        @Override
+        public void sprite(int sprite, int frame, float left, float top, float right, float bottom)
+        {
+            calls++;
+        }
+
+        @Override
+        public void layer(int layer, float left, float top, float right, float bottom)
+        {
+            calls++;
+        }
+
+        @Override
+        public void text(int paint, char[] text, int offset, int length, float x, float y)
+        {
+            calls++;
+        }
+    }
+}
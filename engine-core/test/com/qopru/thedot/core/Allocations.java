@@ -0,0 +1,34 @@
+package com.qopru.thedot.core;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Bytes allocated by the current thread, to check in the tests that what
+ * should not allocate does not.
+ * Relies on the HotSpot extension of the thread management bean.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public final class Allocations
+{
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    static
+    {
+        // The first call allocates, not to be counted by the checks
+        current();
+    }
+
+    private Allocations()
+    {
+    }
+
+    /**
+     * @return bytes allocated so far by the current thread.
+     */
+    public static long current()
+    {
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
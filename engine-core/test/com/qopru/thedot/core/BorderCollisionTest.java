@@ -0,0 +1,82 @@
+package com.qopru.thedot.core;
+
+import com.qopru.thedot.core.objects.Enemy;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The dot bouncing on the right border within a step: from 40, 0 at 1200
+ * units/s it reaches the border halfway through a 60Hz step, then comes
+ * back at half the speed, ending at 45.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public class BorderCollisionTest
+{
+    private static final float START_X = 40;
+    private static final float SPEED = 1200;
+
+    @Test
+    public void bouncesFromTheImpact()
+    {
+        Simulation sim = simulation(-40, -80);
+        sim.playerV.set(SPEED, 0);
+        sim.update(0, Worlds.STEP_MILLIS);
+
+        assertEquals(45, sim.player.x, 1e-4f);
+        assertEquals(0, sim.player.y, 0);
+        assertEquals(-SPEED / 2, sim.playerV.x, 1e-3f);
+        assertTrue(sim.touchedBorderHorizontal);
+        assertFalse(sim.touchedBorderVertical);
+    }
+
+    @Test
+    public void hitsEnemyBeforeTheBorder()
+    {
+        // Beyond where the dot ends, before the border
+        Simulation sim = simulation(49, 0);
+        sim.playerV.set(SPEED, 0);
+        sim.update(0, Worlds.STEP_MILLIS);
+
+        assertTrue(sim.deathAnimation);
+        // Stopped on the way there, still going there
+        assertTrue(sim.player.x > 46 && sim.player.x < 48);
+        assertEquals(SPEED, sim.playerV.x, 1e-3f);
+    }
+
+    @Test
+    public void missesEnemyBetweenStartAndEnd()
+    {
+        // Between the start and the end of the step, far from the path
+        // the dot takes by way of the border: 40, 0 to 50, 5 to 45, 10
+        Simulation sim = simulation(42.5f, 5);
+        sim.playerV.set(SPEED, SPEED / 2);
+        sim.update(0, Worlds.STEP_MILLIS);
+
+        assertFalse(sim.deathAnimation);
+        assertEquals(45, sim.player.x, 1e-4f);
+        assertEquals(10, sim.player.y, 1e-4f);
+    }
+
+    /**
+     * @return a level without wells and with an enemy at x, y, the dot
+     * at START_X, 0.
+     */
+    private static Simulation simulation(float x, float y)
+    {
+        Simulation sim = new Simulation(Worlds.BOUNDS, Worlds.NO_INPUT, Worlds.NO_HAPTICS, new Random(Worlds.SEED));
+        sim.setEnemiesPerLevel(1);
+        sim.setWellsPerLevel(0);
+        sim.start(0);
+        sim.play();
+        Enemy enemy = sim.enemies.get(0);
+        enemy.setPosition(x, y);
+        sim.indexEnemies();
+        sim.player.set(START_X, 0);
+        return sim;
+    }
+}
@@ -0,0 +1,137 @@
+package com.qopru.thedot.core;
+
+import com.qopru.thedot.core.math.Vec2;
+import com.qopru.thedot.core.objects.GravityWell;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The baked gravity field against the sum of the wells, on random
+ * positions of levels as the game makes them, overall and at each
+ * position.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public class ForceFieldTest
+{
+    private static final int CHECKED_POSITIONS = 10000;
+    // The field can't follow the peak of a well, nor the cut at the end of
+    // its reach: positions nearer than NEAR_WELL to a well, or than a grid
+    // cell diagonal to the end of its reach, are not checked.
+    private static final float NEAR_WELL = 2;
+    private static final float NEAR_REACH = 1.5f;
+    // Elsewhere the 1 unit field measures 0.7-0.9% RMS error over the RMS
+    // force, and at most 4.0% at a position, with 1 to 100 wells. A field
+    // off by a cell, or with the blend weights swapped, gives at least
+    // 9.5% RMS and more than 13% at some position.
+    private static final float MAX_RMS_ERROR = 0.01f;
+    // At a position, relative to the forces of the wells added up as if
+    // they all pulled the same way: where they cancel out, the error of
+    // each one still counts.
+    private static final float MAX_ERROR = 0.05f;
+
+    @Test
+    public void oneWell()
+    {
+        checkError(1);
+    }
+
+    @Test
+    public void someWells()
+    {
+        checkError(10);
+    }
+
+    @Test
+    public void manyWells()
+    {
+        checkError(100);
+    }
+
+    @Test
+    public void bakedWithTheLevel()
+    {
+        Simulation sim = Worlds.frozen(0);
+        sim.setWellsPerLevel(1);
+        sim.loadLevel(1);
+        assertFalse("baked without asking", sim.level.gravityBaked);
+        sim.setBakedGravity(true);
+        sim.applyGravityWells(new Vec2());
+        assertFalse("baked while playing", sim.level.gravityBaked);
+        sim.loadLevel(2);
+        assertTrue("not baked with the level", sim.level.gravityBaked);
+    }
+
+    private static void checkError(int wells)
+    {
+        Simulation sim = Worlds.frozen(0);
+        sim.setWellsPerLevel(wells);
+        sim.setBakedGravity(true);
+        sim.loadLevel(1);
+        sim.play();
+
+        Random random = new Random(Worlds.SEED);
+        Vec2 summed = new Vec2();
+        Vec2 baked = new Vec2();
+        double errorSquares = 0;
+        double forceSquares = 0;
+        int checked = 0;
+        for (int i = 0; i < CHECKED_POSITIONS; i++)
+        {
+            float x = Worlds.BOUNDS.left + random.nextFloat() * Worlds.BOUNDS.width();
+            float y = Worlds.BOUNDS.top + random.nextFloat() * Worlds.BOUNDS.height();
+            if (unchecked(sim, x, y))
+                continue;
+            checked++;
+            sim.player.set(x, y);
+            sim.setBakedGravity(false);
+            sim.applyGravityWells(summed.set(0, 0));
+            sim.setBakedGravity(true);
+            sim.applyGravityWells(baked.set(0, 0));
+
+            float error = (float) Math.sqrt(summed.distanceSquared(baked));
+            errorSquares += error * error;
+            forceSquares += summed.lengthSquared();
+            if (error > MAX_ERROR * wellForces(sim, x, y))
+                throw new AssertionError(wells + " wells, baked gravity out of error bounds at " + x + ", " + y
+                    + ": expected " + summed + " got " + baked);
+        }
+        assertTrue("nothing checked", checked > 0);
+        if (errorSquares > MAX_RMS_ERROR * MAX_RMS_ERROR * forceSquares)
+            throw new AssertionError(wells + " wells, baked gravity out of error bounds: rms error "
+                + Math.sqrt(errorSquares / checked) + " for rms force "
+                + Math.sqrt(forceSquares / checked));
+    }
+
+    private static boolean unchecked(Simulation sim, float x, float y)
+    {
+        for (int i = 0; i < sim.gravityWells.size(); i++)
+        {
+            GravityWell well = sim.gravityWells.get(i);
+            float distance = (float) Math.hypot(well.getX() - x, well.getY() - y);
+            if (distance < NEAR_WELL
+                || Math.abs(distance - Simulation.GRAVITY_WELL_MAXDISTANCE) < NEAR_REACH)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the magnitudes of the forces of the wells in reach, added up.
+     */
+    private static float wellForces(Simulation sim, float x, float y)
+    {
+        float sum = 0;
+        for (int i = 0; i < sim.gravityWells.size(); i++)
+        {
+            GravityWell well = sim.gravityWells.get(i);
+            float distance = (float) Math.hypot(well.getX() - x, well.getY() - y);
+            if (distance <= Simulation.GRAVITY_WELL_MAXDISTANCE)
+                sum += Math.abs(well.getPower()) / (distance + 1);
+        }
+        return sum;
+    }
+}
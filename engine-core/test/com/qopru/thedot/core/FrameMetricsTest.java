@@ -0,0 +1,47 @@
+package com.qopru.thedot.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The collections seen by the frames.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public class FrameMetricsTest
+{
+    // Frames to try before giving up on the collector
+    private static final int MAX_FRAMES = 100;
+
+    @Test
+    public void noCollectionNoFrame()
+    {
+        FrameMetrics metrics = new FrameMetrics();
+        assertEquals(0, metrics.getLastGcFrame());
+    }
+
+    @Test
+    public void marksTheFrameThatSawTheCollection()
+    {
+        FrameMetrics metrics = new FrameMetrics();
+        metrics.endFrame();
+        metrics.endFrame();
+        while (metrics.getGcCount() == 0 && metrics.getFrames() < MAX_FRAMES)
+        {
+            System.gc();
+            metrics.endFrame();
+        }
+        assertTrue("no collection seen", metrics.getGcCount() > 0);
+        assertTrue(metrics.getLastGcFrame() > 2);
+        assertEquals(metrics.getFrames(), metrics.getLastGcFrame());
+
+        long collected = metrics.getLastGcFrame();
+        metrics.endFrame();
+        assertEquals(collected, metrics.getLastGcFrame());
+
+        metrics.reset();
+        assertEquals(0, metrics.getLastGcFrame());
+    }
+}
@@ -0,0 +1,88 @@
+package com.qopru.thedot.core;
+
+import com.qopru.thedot.core.interfaces.Haptics;
+import com.qopru.thedot.core.interfaces.InputSource;
+import com.qopru.thedot.core.math.Bounds;
+import com.qopru.thedot.core.math.Vec2;
+import com.qopru.thedot.core.objects.Enemy;
+import java.util.Random;
+
+/**
+ * Worlds to run the tests and the benchmarks on, always the same for the
+ * same parameters.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+final class Worlds
+{
+    // A 1080x1920 portrait screen
+    static final Bounds BOUNDS = new Bounds(-50, -89, 50, 89);
+    // A 60Hz step, in milliseconds
+    static final float STEP_MILLIS = 1000f / 60f;
+    static final long SEED = 42;
+    // Enemies closer than this to the dot are moved away
+    private static final float CLEARANCE = 10;
+
+    static final InputSource NO_INPUT = new InputSource()
+    {
+        @Override
+        public long read(long time, Vec2 acceleration)
+        {
+            acceleration.set(0, 0);
+            return NO_SAMPLE;
+        }
+    };
+
+    // The device tilted around in circles, to play a level the same way
+    // every time: the dot moves, dies and reaches gates.
+    static final InputSource CIRCLES = new InputSource()
+    {
+        @Override
+        public long read(long time, Vec2 acceleration)
+        {
+            double t = time / 1e9;
+            acceleration.set((float) (3 * Math.sin(t * 1.3)), (float) (3 * Math.cos(t * 0.7)));
+            return time;
+        }
+    };
+
+    static final Haptics NO_HAPTICS = new Haptics()
+    {
+        @Override
+        public void vibrate(long millis)
+        {
+        }
+    };
+
+    private Worlds()
+    {
+    }
+
+    /**
+     * A level being played, with the given number of enemies.
+     * The world is frozen (time factor 0) so that every step does the same
+     * work: all the per object math still runs, but nothing moves, so there
+     * are no collisions, deaths or level changes while measuring.
+     *
+     * @param enemies
+     * @return
+     */
+    static Simulation frozen(int enemies)
+    {
+        Simulation sim = new Simulation(BOUNDS, NO_INPUT, NO_HAPTICS, new Random(SEED));
+        sim.setEnemiesPerLevel(enemies);
+        sim.start(0);
+        sim.play();
+        sim.setTimeFactor(0);
+        for (int i = 0; i < sim.enemies.size(); i++)
+        {
+            Enemy enemy = sim.enemies.get(i);
+            float x = enemy.getX();
+            float y = enemy.getY();
+            if (Math.abs(x - sim.player.x) < CLEARANCE && Math.abs(y - sim.player.y) < CLEARANCE)
+                enemy.setPosition(x < sim.player.x ? x - CLEARANCE : x + CLEARANCE, y);
+        }
+        sim.indexEnemies();
+        return sim;
+    }
+}
@@ -0,0 +1,182 @@
+package com.qopru.thedot.core.math;
+
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The force kernels against the trigonometry they replaced, on random
+ * vectors in and out of range.
+ *
+ * @author Raffaele Ragni <raffaele.ragni@gmail.com>
+ */
+public class ForceKernelTest
+{
+    private static final int VECTORS = 100000;
+    private static final float MAX_DISTANCE = 50;
+    private static final float POWER = 15;
+    private static final float STEP = 0.4f;
+
+    // Relative error allowed against the trigonometry
+    private static final float EXACT_ERROR = 1e-5f;
+    private static final float APPROXIMATE_ERROR = 2e-3f;
+
+    @Test
+    public void exactAttractionMatchesTrigonometry()
+    {
+        checkAttraction(ForceKernel.EXACT, EXACT_ERROR);
+    }
+
+    @Test
+    public void approximateAttractionMatchesTrigonometry()
+    {
+        checkAttraction(ForceKernel.APPROXIMATE, APPROXIMATE_ERROR);
+    }
+
+    @Test
+    public void exactSteeringMatchesTrigonometry()
+    {
+        checkSteering(ForceKernel.EXACT, EXACT_ERROR);
+    }
+
+    @Test
+    public void approximateSteeringMatchesTrigonometry()
+    {
+        checkSteering(ForceKernel.APPROXIMATE, APPROXIMATE_ERROR);
+    }
+
+    @Test
+    public void scalesToTheLength()
+    {
+        assertEquals(2, ForceKernel.EXACT.scaleTo(3, 4, 10), 1e-6f);
+        assertEquals(-2, ForceKernel.EXACT.scaleTo(3, 4, -10), 1e-6f);
+        assertEquals(2, ForceKernel.APPROXIMATE.scaleTo(3, 4, 10), 2 * APPROXIMATE_ERROR);
+    }
+
+    @Test
+    public void zeroVectorHasNoScale()
+    {
+        assertEquals(0, ForceKernel.EXACT.scaleTo(0, 0, STEP), 0);
+        assertEquals(0, ForceKernel.APPROXIMATE.scaleTo(0, 0, STEP), 0);
+    }
+
+    @Test
+    public void attractsUpToTheMaxDistance()
+    {
+        for (ForceKernel k : new ForceKernel[] {ForceKernel.EXACT, ForceKernel.APPROXIMATE})
+        {
+            Vec2 force = new Vec2();
+            assertTrue(k.addAttraction(force, MAX_DISTANCE, 0, POWER, MAX_DISTANCE));
+            assertEquals(POWER / (MAX_DISTANCE + 1), force.x, POWER / (MAX_DISTANCE + 1) * APPROXIMATE_ERROR);
+            assertEquals(0, force.y, 0);
+
+            force.set(0, 0);
+            assertFalse(k.addAttraction(force, MAX_DISTANCE * 1.001f, 0, POWER, MAX_DISTANCE));
+            assertFalse(k.addAttraction(force, 40, 40, POWER, MAX_DISTANCE));
+            assertEquals(0, force.x, 0);
+            assertEquals(0, force.y, 0);
+        }
+    }
+
+    @Test
+    public void noAttractionAtTheCenter()
+    {
+        for (ForceKernel k : new ForceKernel[] {ForceKernel.EXACT, ForceKernel.APPROXIMATE})
+        {
+            Vec2 force = new Vec2();
+            assertFalse(k.addAttraction(force, 0, 0, POWER, MAX_DISTANCE));
+            assertEquals(0, force.x, 0);
+            assertEquals(0, force.y, 0);
+        }
+    }
+
+    @Test
+    public void negativePowerPushesAway()
+    {
+        Vec2 force = new Vec2();
+        ForceKernel.EXACT.addAttraction(force, 3, 4, -POWER, MAX_DISTANCE);
+        assertTrue(force.x < 0);
+        assertTrue(force.y < 0);
+    }
+
+    @Test
+    public void fastInvSqrtIsWithinBounds()
+    {
+        // Every mantissa between 1 and 4 covers all the exponents: the
+        // approximation only depends on the mantissa and the exponent parity
+        for (float x = 1; x < 4; x = Math.nextUp(x))
+            checkInvSqrt(x);
+        Random random = new Random(42);
+        for (int i = 0; i < VECTORS; i++)
+            checkInvSqrt(random.nextFloat() * MAX_DISTANCE * MAX_DISTANCE * 2 + Float.MIN_NORMAL);
+    }
+
+    private static void checkInvSqrt(float x)
+    {
+        double expected = 1 / Math.sqrt(x);
+        double error = Math.abs(ForceKernel.fastInvSqrt(x) - expected) / expected;
+        if (error >= APPROXIMATE_ERROR)
+            throw new AssertionError("1/sqrt(" + x + ") off by " + error);
+    }
+
+    private static void checkAttraction(ForceKernel k, float bound)
+    {
+        Random random = new Random(42);
+        Vec2 expected = new Vec2();
+        Vec2 actual = new Vec2();
+        for (int i = 0; i < VECTORS; i++)
+        {
+            // Also out of range ones, a quarter of them
+            float dx = (random.nextFloat() * 2 - 1) * MAX_DISTANCE * 1.25f;
+            float dy = (random.nextFloat() * 2 - 1) * MAX_DISTANCE * 1.25f;
+            expected.set(0, 0);
+            actual.set(0, 0);
+            trigAttraction(expected, dx, dy, POWER, MAX_DISTANCE);
+            k.addAttraction(actual, dx, dy, POWER, MAX_DISTANCE);
+            check("attraction", dx, dy, expected, actual, bound);
+        }
+    }
+
+    private static void checkSteering(ForceKernel k, float bound)
+    {
+        Random random = new Random(42);
+        Vec2 expected = new Vec2();
+        Vec2 actual = new Vec2();
+        for (int i = 0; i < VECTORS; i++)
+        {
+            float dx = (random.nextFloat() * 2 - 1) * MAX_DISTANCE;
+            float dy = (random.nextFloat() * 2 - 1) * MAX_DISTANCE;
+            double angle = Math.atan2(dy, dx);
+            expected.set(STEP * (float) Math.cos(angle), STEP * (float) Math.sin(angle));
+            float scale = k.scaleTo(dx, dy, STEP);
+            actual.set(dx * scale, dy * scale);
+            check("steering", dx, dy, expected, actual, bound);
+        }
+    }
+
+    private static void check(String what, float dx, float dy, Vec2 expected, Vec2 actual, float bound)
+    {
+        float error = (float) Math.sqrt(expected.distanceSquared(actual));
+        float length = expected.length();
+        if (length == 0 ? error != 0 : error / length > bound)
+            throw new AssertionError(what + " out of error bounds for " + dx + ", " + dy
+                + ": expected " + expected + " got " + actual);
+    }
+
+    /**
+     * The gravity well attraction as it was computed before the kernel.
+     */
+    private static void trigAttraction(Vec2 force, float deltaX, float deltaY, float power, float maxDistance)
+    {
+        double distance = Math.sqrt(Math.pow(deltaX, 2) + Math.pow(deltaY, 2));
+        if (distance > maxDistance)
+            return;
+        distance++;
+        double angle = Math.atan2(deltaY, deltaX);
+        force.x += 1/distance * power * Math.cos(angle);
+        force.y += 1/distance * power * Math.sin(angle);
+    }
+}
@@ -1,13 +0,0 @@
-package com.qopru.thedot.interfaces;
-
-import android.graphics.Canvas;
-
-/**
- * Rendering 'function type'.
- * 
- * @author Raffaele Ragni <raffaele.ragni@gmail.com>
- */
-public interface GameRenderer
-{
-    public void render(Canvas canvas);
-}
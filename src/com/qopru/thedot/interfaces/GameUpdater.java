@@ -1,11 +0,0 @@
-package com.qopru.thedot.interfaces;
-
-/**
- * Updating 'function type'.
- * 
- * @author Raffaele Ragni <raffaele.ragni@gmail.com>
- */
-public interface GameUpdater
-{
-    public void update(int deltaT);
-}